@@ -0,0 +1,121 @@
+package jchess.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.Square;
+
+/**
+ * Throughput of the Board hot paths, one benchmark invocation per position
+ * of {@link BenchmarkPositions}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"})
+    public int position;
+
+    private final MoveList moves = new MoveList();
+    private final Square[] squares = new Square[64];
+    private final StringBuilder fenBuilder = new StringBuilder(90);
+    private final ByteBuffer binary = ByteBuffer.allocate(Board.BINARY_SIZE);
+
+    private String fen;
+    private Board board;
+
+    @Setup
+    public void setup() {
+        fen = BenchmarkPositions.FENS[position];
+        board = new Board(fen);
+
+        for (int i = 0; i < 64; i++) {
+            squares[i] = new Square(i);
+        }
+
+        board.writeBinary(binary, 0);
+    }
+
+    @Benchmark
+    public void generateMovesFor(Blackhole blackhole) {
+        for (Square square : squares) {
+            blackhole.consume(board.generateMovesFor(square));
+        }
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        board.generateLegalMoves(moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public boolean isKingInCheck() {
+        return board.isKingInCheck(board.activeColor);
+    }
+
+    /**
+     * Makes and takes back every legal move of the position
+     */
+    @Benchmark
+    public long makeUnmakeMove() {
+        board.generateLegalMoves(moves);
+        long hash = 0L;
+
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            hash ^= board.hash();
+            board.unmakeMove();
+        }
+
+        return hash;
+    }
+
+    @Benchmark
+    public Board loadFen() {
+        board.loadFen(fen);
+        return board;
+    }
+
+    @Benchmark
+    public String toFen() {
+        return board.toFen();
+    }
+
+    @Benchmark
+    public StringBuilder appendFen() {
+        fenBuilder.setLength(0);
+        return board.appendFen(fenBuilder);
+    }
+
+    @Benchmark
+    public ByteBuffer writeBinary() {
+        board.writeBinary(binary, 0);
+        return binary;
+    }
+
+    @Benchmark
+    public Board loadBinary() {
+        board.loadBinary(binary, 0);
+        return board;
+    }
+}
@@ -0,0 +1,60 @@
+package jchess.bench;
+
+import jchess.Board;
+import jchess.engine.ParallelSearch;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+import jchess.engine.TranspositionTable;
+
+/**
+ * Measures how much faster {@link ParallelSearch} reaches a fixed depth with
+ * several threads than with one, over the benchmark positions. Every search
+ * starts from an empty table, so results don't leak between runs.
+ *
+ * Usage: {@code java -cp target/benchmarks.jar jchess.bench.SearchSpeedup [threads] [depth] [hash MB]}
+ */
+public class SearchSpeedup {
+
+    public static void main(String[] args) {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        final int hashMb = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        try (TranspositionTable table = new TranspositionTable(hashMb)) {
+            // Warm up so the single thread run isn't penalized by the JIT
+            run(table, 1, depth - 1);
+
+            final long[] single = run(table, 1, depth);
+            final long[] parallel = run(table, threads, depth);
+
+            System.out.printf("Time to depth %d: 1 thread %d ms (%d nps), %d threads %d ms (%d nps)%n",
+                    depth, single[0] / 1_000_000, nodesPerSecond(single),
+                    threads, parallel[0] / 1_000_000, nodesPerSecond(parallel));
+            System.out.printf("Speedup: %.2f%n", (double) single[0] / parallel[0]);
+        }
+    }
+
+    /**
+     * @return total time and nodes over all positions
+     */
+    private static long[] run(TranspositionTable table, int threads, int depth) {
+        final ParallelSearch search = new ParallelSearch(table, threads);
+        long nanos = 0;
+        long nodes = 0;
+
+        for (String fen : BenchmarkPositions.FENS) {
+            table.clear();
+
+            final SearchInfo result = search.search(new Board(fen), SearchLimits.depth(depth), null);
+
+            nanos += result.nanos();
+            nodes += result.nodes();
+        }
+
+        return new long[] { nanos, nodes };
+    }
+
+    private static long nodesPerSecond(long[] result) {
+        return result[0] == 0 ? 0 : result[1] * 1_000_000_000L / result[0];
+    }
+}
@@ -0,0 +1,43 @@
+package jchess.bench;
+
+import jchess.Board;
+import jchess.engine.Search;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+import jchess.engine.TranspositionTable;
+
+/**
+ * Searches every benchmark position to a fixed depth on one thread and
+ * prints the node counts and first-move cutoff rates, to measure the effect
+ * of move ordering changes.
+ *
+ * Usage: {@code java -cp target/benchmarks.jar jchess.bench.SearchStatistics [depth] [hash MB]}
+ */
+public class SearchStatistics {
+
+    public static void main(String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        final int hashMb = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        long totalNodes = 0;
+        long totalNanos = 0;
+
+        try (TranspositionTable table = new TranspositionTable(hashMb)) {
+            for (String fen : BenchmarkPositions.FENS) {
+                table.clear();
+
+                final Search search = new Search(new Board(fen), table);
+                final SearchInfo result = search.search(SearchLimits.depth(depth), null);
+
+                System.out.printf("%-80s nodes %10d  first move cutoffs %5.1f%%%n",
+                        fen, result.nodes(), search.getFirstMoveCutoffRate() * 100);
+
+                totalNodes += result.nodes();
+                totalNanos += result.nanos();
+            }
+        }
+
+        System.out.printf("Total: %d nodes, %d ms, %d nps%n",
+                totalNodes, totalNanos / 1_000_000, totalNodes * 1_000_000_000L / Math.max(1, totalNanos));
+    }
+}
@@ -1,19 +1,33 @@
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Path;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
 import jchess.Board;
+import jchess.explorer.PositionIndex;
 import jchess.gui.ChessBoardPanel;
+import jchess.gui.ExplorerPanel;
 
+/**
+ * Usage: {@code JChess [index]}, where the optional index is a position
+ * index written by {@code JChessExplorer} to show beside the board
+ */
 public class JChess {
 
     private static Board board;
+    private static PositionIndex index;
+
+    public static void main(String args[]) throws IOException {
+        board = new Board(Board.START_FEN);
+
+        if (args.length > 0) {
+            index = PositionIndex.open(Path.of(args[0]));
+        }
 
-    public static void main(String args[]) {
-        board = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
         board.debugPrint();
 
         SwingUtilities.invokeLater(() -> createWindow());
@@ -25,7 +39,15 @@ public class JChess {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setBackground(Color.GRAY);
 
-        frame.add(new ChessBoardPanel(board), BorderLayout.WEST);
+        final ChessBoardPanel boardPanel = new ChessBoardPanel(board);
+        frame.add(boardPanel, BorderLayout.WEST);
+
+        if (index != null) {
+            final ExplorerPanel explorerPanel = new ExplorerPanel(board, index);
+            frame.add(explorerPanel, BorderLayout.EAST);
+            boardPanel.setMoveListener(explorerPanel::update);
+        }
+
         frame.pack();
 
         // Center window on screen
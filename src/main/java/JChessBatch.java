@@ -0,0 +1,52 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+import jchess.batch.BatchAnalyzer;
+import jchess.batch.BatchSummary;
+import jchess.engine.SearchLimits;
+
+/**
+ * Batch analysis of a FEN or EPD file, see {@link BatchAnalyzer}.
+ *
+ * Usage: {@code JChessBatch input output [depth N | nodes N] [threads N] [hash MB]}
+ */
+public class JChessBatch {
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.err.println("Usage: JChessBatch input output [depth N | nodes N] [threads N] [hash MB]");
+            System.exit(1);
+        }
+
+        int depth = 0;
+        long nodes = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hashMb = 16;
+
+        for (int i = 2; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "depth" ->
+                    depth = Integer.parseInt(args[i + 1]);
+                case "nodes" ->
+                    nodes = Long.parseLong(args[i + 1]);
+                case "threads" ->
+                    threads = Integer.parseInt(args[i + 1]);
+                case "hash" ->
+                    hashMb = Integer.parseInt(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        if (depth == 0 && nodes == 0) {
+            depth = 6;
+        }
+
+        final BatchSummary summary = new BatchAnalyzer(threads, new SearchLimits(depth, 0, nodes), hashMb)
+                .run(Path.of(args[0]), Path.of(args[1]), System.err);
+
+        System.err.println(summary);
+    }
+}
@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+import jchess.explorer.PositionIndex;
+import jchess.explorer.PositionIndexBuilder;
+import jchess.pgn.PgnReader;
+
+/**
+ * Builds a position index for the opening explorer from a PGN file, see
+ * {@link PositionIndexBuilder}. Open it with {@code JChess index}.
+ *
+ * Usage: {@code JChessExplorer input output [threads N] [plies N]}
+ */
+public class JChessExplorer {
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.err.println("Usage: JChessExplorer input output [threads N] [plies N]");
+            System.exit(1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        int plies = 40;
+
+        for (int i = 2; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "threads" ->
+                    threads = Integer.parseInt(args[i + 1]);
+                case "plies" ->
+                    plies = Integer.parseInt(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        final PositionIndexBuilder builder = new PositionIndexBuilder(plies);
+
+        try (PgnReader reader = new PgnReader(Path.of(args[0]));
+                PositionIndex index = builder.build(reader, threads, System.out::println, System.err)) {
+            index.write(Path.of(args[1]));
+
+            System.err.println(builder.getSummary());
+            System.err.println(index.size() + " positions and moves indexed");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jchess.batch.BatchAnalyzer;
+import jchess.batch.MappedLineReader;
+import jchess.engine.SearchLimits;
+import jchess.match.MatchRunner;
+import jchess.match.MatchSummary;
+import jchess.match.SearchPlayer;
+import jchess.match.TimeControl;
+
+/**
+ * Plays the engine against itself, see {@link MatchRunner}, from the
+ * positions of a FEN or EPD file, and writes the games to a PGN file.
+ *
+ * Usage: {@code JChessMatch openings output [games N] [tc base+increment]
+ * [concurrency N] [hash MB] [nodes N]}, where the time control is in
+ * seconds and a node limit per move makes the games reproducible
+ */
+public class JChessMatch {
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            System.err.println("Usage: JChessMatch openings output [games N] [tc base+increment] "
+                    + "[concurrency N] [hash MB] [nodes N]");
+            System.exit(1);
+        }
+
+        int games = 100;
+        TimeControl timeControl = new TimeControl(10_000, 100);
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        int hashMb = 16;
+        long nodes = 0;
+
+        for (int i = 2; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "games" ->
+                    games = Integer.parseInt(args[i + 1]);
+                case "tc" ->
+                    timeControl = TimeControl.parse(args[i + 1]);
+                case "concurrency" ->
+                    concurrency = Integer.parseInt(args[i + 1]);
+                case "hash" ->
+                    hashMb = Integer.parseInt(args[i + 1]);
+                case "nodes" ->
+                    nodes = Long.parseLong(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        final List<String> openings = new ArrayList<>();
+
+        try (MappedLineReader reader = new MappedLineReader(Path.of(args[0]))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    openings.add(BatchAnalyzer.toFen(line.strip()));
+                }
+            }
+        }
+
+        final int hash = hashMb;
+        final SearchLimits limits = nodes > 0 ? SearchLimits.nodes(nodes) : null;
+        final MatchRunner runner = new MatchRunner(
+                () -> new SearchPlayer("JChess A", hash, limits),
+                () -> new SearchPlayer("JChess B", hash, limits),
+                timeControl, concurrency
+        );
+
+        try (Writer pgn = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            final MatchSummary summary = runner.run(openings, games, pgn, System.err);
+
+            System.err.println(summary);
+        }
+    }
+}
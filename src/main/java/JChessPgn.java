@@ -0,0 +1,30 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+import jchess.pgn.PgnReader;
+import jchess.pgn.PgnReplayer;
+import jchess.pgn.PgnSummary;
+
+/**
+ * Replays every game of a PGN file, see {@link PgnReplayer}, and reports
+ * the games that are malformed or contain illegal moves.
+ *
+ * Usage: {@code JChessPgn input [threads N]}
+ */
+public class JChessPgn {
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+        if (args.length != 1 && (args.length != 3 || !args[1].equals("threads"))) {
+            System.err.println("Usage: JChessPgn input [threads N]");
+            System.exit(1);
+        }
+
+        final int threads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (PgnReader reader = new PgnReader(Path.of(args[0]))) {
+            final PgnSummary summary = new PgnReplayer(threads).run(reader, null, System.out::println, System.err);
+
+            System.err.println(summary);
+        }
+    }
+}
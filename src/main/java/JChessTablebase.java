@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jchess.tablebase.Tablebase;
+import jchess.tablebase.Tablebases;
+
+/**
+ * Generates endgame tablebases, see {@link Tablebases}, and writes them with
+ * the smaller tables they depend on to a directory.
+ *
+ * Usage: {@code JChessTablebase directory signature... [threads N]}, e.g.
+ * {@code JChessTablebase tb KQvK KRvK KPvK KBNvK threads 8}
+ */
+public class JChessTablebase {
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+        final List<String> signatures = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                signatures.add(args[i]);
+            }
+        }
+
+        if (signatures.isEmpty()) {
+            System.err.println("Usage: JChessTablebase directory signature... [threads N]");
+            System.exit(1);
+        }
+
+        final Path directory = Path.of(args[0]);
+        final Tablebases tablebases = new Tablebases();
+
+        if (directory.toFile().isDirectory()) {
+            tablebases.load(directory);
+        }
+
+        for (String signature : signatures) {
+            final long start = System.nanoTime();
+            final Tablebase table = tablebases.generate(signature, threads);
+
+            System.err.printf("%s in %.1f s%n", table.getName(), (System.nanoTime() - start) / 1e9);
+        }
+
+        tablebases.write(directory);
+    }
+}
@@ -0,0 +1,15 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import jchess.uci.UciEngine;
+
+/**
+ * Headless entry point, speaking UCI on standard input and output
+ */
+public class JChessUci {
+
+    public static void main(String args[]) throws IOException {
+        new UciEngine(new BufferedReader(new InputStreamReader(System.in)), System.out).run();
+    }
+}
@@ -1,16 +1,48 @@
 package jchess;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
 public final class Board {
 
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Size in bytes of a position in binary form, see {@link #writeBinary}
+     */
+    public static final int BINARY_SIZE = 32;
+
+    private static final int INITIAL_UNDO_CAPACITY = 1024;
+
+    private static final int UNDO_CAPTURED_SHIFT = 0;
+    private static final int UNDO_CASTLING_SHIFT = 5;
+    private static final int UNDO_EN_PASSANT_SQUARE_SHIFT = 9;
+    private static final int UNDO_HALF_MOVE_SHIFT = 16;
+    private static final int UNDO_LAST_MOVE_SHIFT = 32;
+
+    // Kinds of moves to generate, see generateMoves
+    private static final int NOISY_MOVES = 0b01;
+    private static final int QUIET_MOVES = 0b10;
+    private static final int ALL_MOVES = NOISY_MOVES | QUIET_MOVES;
+
+    // Piece values for static exchange evaluation, by piece type. Capturing
+    // the king is worth more than any exchange can make up for.
+    private static final int[] EXCHANGE_VALUES = {0, 20000, 100, 320, 330, 500, 900};
+    private static final int[] EXCHANGE_ORDER = {
+        Piece.PAWN, Piece.KNIGHT, Piece.BISHOP, Piece.ROOK, Piece.QUEEN, Piece.KING
+    };
+
     private final CastlingRights castlingRights = new CastlingRights();
     private final int[] board = new int[64];
 
     public int activeColor = Piece.WHITE;
-    public Move lastMove = null;
 
+    private int lastMove = PackedMove.NONE;
     private int moveCounter = 1;
     private int halfMoveCounter = 0;
-    private Square enPassantSquare = new Square(-1);
+    private int enPassantSquare = -1;
 
     private long whitePieces = 0L;
     private long blackPieces = 0L;
@@ -22,6 +54,31 @@ public final class Board {
     private long rooks = 0L;
     private long queens = 0L;
 
+    private long hash = 0L;
+
+    // Material plus piece-square totals from white's point of view, and the
+    // game phase, kept up to date as pieces are added and removed
+    private int midgameScore = 0;
+    private int endgameScore = 0;
+    private int phase = 0;
+
+    /**
+     * Undo stack of packed records, one per move made, holding the state
+     * that can't be recovered from the move itself (see {@link #pushUndo}).
+     */
+    private long[] undoStack = new long[INITIAL_UNDO_CAPACITY];
+    private long[] hashHistory = new long[INITIAL_UNDO_CAPACITY];
+    private int undoCount = 0;
+
+    private final MoveList scratchMoves = new MoveList();
+    private final int[] exchangeGains = new int[32];
+
+    // Reused by the FEN reader and writer, so they don't allocate
+    private final int[] fenFields = new int[12];
+    private final long[] placement = new long[Piece.create(Piece.QUEEN, Piece.BLACK) + 1];
+    private final AsciiSequence fenBytes = new AsciiSequence();
+    private final StringBuilder fenBuilder = new StringBuilder(90);
+
     public Board() {
     }
 
@@ -29,154 +86,631 @@ public final class Board {
         loadFen(fen);
     }
 
+    /**
+     * Creates an independent copy of a board, including its move history,
+     * so it can be searched on another thread.
+     */
+    public Board(Board other) {
+        castlingRights.set(other.castlingRights.get());
+        System.arraycopy(other.board, 0, board, 0, board.length);
+
+        activeColor = other.activeColor;
+        lastMove = other.lastMove;
+        moveCounter = other.moveCounter;
+        halfMoveCounter = other.halfMoveCounter;
+        enPassantSquare = other.enPassantSquare;
+
+        whitePieces = other.whitePieces;
+        blackPieces = other.blackPieces;
+        kings = other.kings;
+        pawns = other.pawns;
+        knights = other.knights;
+        bishops = other.bishops;
+        rooks = other.rooks;
+        queens = other.queens;
+        hash = other.hash;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+
+        undoStack = Arrays.copyOf(other.undoStack, other.undoStack.length);
+        hashHistory = Arrays.copyOf(other.hashHistory, other.hashHistory.length);
+        undoCount = other.undoCount;
+    }
+
+    /**
+     * Makes a move given by its squares, as done from the GUI. Pawns reaching
+     * the last rank are promoted to queens.
+     *
+     * @throws IllegalArgumentException if the move isn't legal, in which
+     * case the board is left unchanged
+     */
     public void makeMove(Move move) {
-        if (!isLegalMove(move)) {
-            System.out.println("Illegal move!");
-            return;
+        final int packedMove = findMove(move);
+
+        if (packedMove == PackedMove.NONE) {
+            throw new IllegalArgumentException(
+                    "Illegal move: " + Notation.toNotation(move.fromSquare()) + Notation.toNotation(move.toSquare())
+            );
+        }
+
+        makeMove(packedMove);
+    }
+
+    /**
+     * Makes a move generated by {@link #generateLegalMoves}. The move is not
+     * validated.
+     */
+    public void makeMove(int move) {
+        final int fromIndex = PackedMove.getFrom(move);
+        final int toIndex = PackedMove.getTo(move);
+        final int movedPiece = board[fromIndex];
+        final int capturedIndex = getCapturedIndex(move);
+        final int capturedPiece = board[capturedIndex];
+
+        pushUndo(capturedPiece);
+
+        if (capturedPiece != Piece.NONE) {
+            removePiece(capturedIndex);
         }
 
-        handleCastlingMove(move);
-        handleEnPassantMove(move);
+        movePiece(fromIndex, toIndex);
 
-        updateCastlingRights(move);
-        updateEnPassantSquare(move);
+        if (PackedMove.isPromotion(move)) {
+            setPiece(Piece.create(PackedMove.getPromotionType(move), activeColor), toIndex);
+        }
 
-        movePiece(move.fromSquare(), move.toSquare());
+        if (PackedMove.isCastle(move)) {
+            movePiece(getCastlingRookFrom(move), getCastlingRookTo(move));
+        }
 
-        activeColor = Piece.isWhite(activeColor) ? Piece.BLACK : Piece.WHITE;
+        hash ^= Zobrist.castlingRights(castlingRights.get());
+        castlingRights.update(fromIndex, toIndex);
+        hash ^= Zobrist.castlingRights(castlingRights.get());
+
+        hash ^= Zobrist.enPassant(enPassantSquare);
+
+        if (PackedMove.isDoublePawnPush(move)) {
+            enPassantSquare = (fromIndex + toIndex) / 2;
+        } else {
+            enPassantSquare = -1;
+        }
+
+        hash ^= Zobrist.enPassant(enPassantSquare);
+
+        if (Piece.isType(movedPiece, Piece.PAWN) || capturedPiece != Piece.NONE) {
+            halfMoveCounter = 0;
+        } else {
+            halfMoveCounter++;
+        }
+
+        if (Piece.isBlack(activeColor)) {
+            moveCounter++;
+        }
+
+        activeColor = Piece.getOppositeColor(activeColor);
+        hash ^= Zobrist.blackToMove();
         lastMove = move;
     }
 
-    public boolean isKingInCheck(int pieceColor) {
-        final long ownPieces = Piece.isWhite(pieceColor) ? whitePieces : blackPieces;
-        final long enemyPieces = Piece.isWhite(pieceColor) ? blackPieces : whitePieces;
-        final long ownKings = ownPieces & kings;
+    /**
+     * Takes back the last move made with {@link #makeMove}, restoring the
+     * captured piece, castling rights, en passant square, move counters and
+     * last move.
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
 
-        final int kingPiece = Piece.KING | pieceColor;
-        Square kingSquare = null;
+        final long record = undoStack[--undoCount];
+        final int move = lastMove;
+        final int fromIndex = PackedMove.getFrom(move);
+        final int toIndex = PackedMove.getTo(move);
+        final int capturedPiece = (int) (record >>> UNDO_CAPTURED_SHIFT) & 0b11111;
 
-        for (int i = 0; i < 64; i++) {
-            if (Bits.getBit(ownKings, i)) {
-                kingSquare = new Square(i);
-                break;
+        activeColor = Piece.getOppositeColor(activeColor);
+
+        if (Piece.isBlack(activeColor)) {
+            moveCounter--;
+        }
+
+        if (PackedMove.isPromotion(move)) {
+            setPiece(Piece.create(Piece.PAWN, activeColor), toIndex);
+        }
+
+        movePiece(toIndex, fromIndex);
+
+        if (capturedPiece != Piece.NONE) {
+            setPiece(capturedPiece, getCapturedIndex(move));
+        }
+
+        if (PackedMove.isCastle(move)) {
+            movePiece(getCastlingRookTo(move), getCastlingRookFrom(move));
+        }
+
+        castlingRights.set((int) (record >>> UNDO_CASTLING_SHIFT) & 0b1111);
+        enPassantSquare = (int) ((record >>> UNDO_EN_PASSANT_SQUARE_SHIFT) & 0b1111111) - 1;
+        halfMoveCounter = (int) (record >>> UNDO_HALF_MOVE_SHIFT) & 0xFFFF;
+        lastMove = (int) (record >>> UNDO_LAST_MOVE_SHIFT) & 0xFFFF;
+        hash = hashHistory[undoCount];
+    }
+
+    /**
+     * Pushes the irreversible state of the position onto the undo stack,
+     * packed into a single long:
+     *
+     * <pre>
+     * bits  0-4   captured piece
+     * bits  5-8   castling rights
+     * bits  9-15  en passant square index + 1 (0 when there is none)
+     * bits 16-31  half-move counter
+     * bits 32-47  last move
+     * </pre>
+     */
+    private void pushUndo(int capturedPiece) {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+            hashHistory = Arrays.copyOf(hashHistory, undoCount * 2);
+        }
+
+        hashHistory[undoCount] = hash;
+
+        undoStack[undoCount++] = ((long) capturedPiece << UNDO_CAPTURED_SHIFT)
+                | ((long) castlingRights.get() << UNDO_CASTLING_SHIFT)
+                | ((long) (enPassantSquare + 1) << UNDO_EN_PASSANT_SQUARE_SHIFT)
+                | ((long) (halfMoveCounter & 0xFFFF) << UNDO_HALF_MOVE_SHIFT)
+                | ((long) lastMove << UNDO_LAST_MOVE_SHIFT);
+    }
+
+    private int getCapturedIndex(int move) {
+        final int fromIndex = PackedMove.getFrom(move);
+        final int toIndex = PackedMove.getTo(move);
+
+        // The pawn taken en passant is beside the capturing pawn, on its rank
+        return PackedMove.isEnPassant(move) ? Square.toIndex(toIndex % 8, fromIndex / 8) : toIndex;
+    }
+
+    private int getCastlingRookFrom(int move) {
+        final int fromIndex = PackedMove.getFrom(move);
+        return PackedMove.getFlags(move) == PackedMove.KING_CASTLE ? fromIndex + 3 : fromIndex - 4;
+    }
+
+    private int getCastlingRookTo(int move) {
+        final int fromIndex = PackedMove.getFrom(move);
+        return PackedMove.getFlags(move) == PackedMove.KING_CASTLE ? fromIndex + 1 : fromIndex - 1;
+    }
+
+    /**
+     * @return the Zobrist key of the position, see {@link Zobrist}
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Tapered evaluation of material and piece placement (see
+     * {@link PieceSquareTables}): the midgame and endgame totals are blended
+     * by how much material is left. The totals are kept up to date as
+     * moves are made, so this is constant time.
+     *
+     * @return the score in centipawns from the side to move's point of view
+     */
+    public int evaluate() {
+        // Promotions can push the phase past its starting value
+        final int midgamePhase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        final int score = (midgameScore * midgamePhase + endgameScore * (PieceSquareTables.MAX_PHASE - midgamePhase))
+                / PieceSquareTables.MAX_PHASE;
+
+        return Piece.isWhite(activeColor) ? score : -score;
+    }
+
+    /**
+     * @return the last move made, or null at the start of the game
+     */
+    public Move getLastMove() {
+        return lastMove == PackedMove.NONE ? null : Move.fromPacked(lastMove);
+    }
+
+    /**
+     * Finds the legal move matching the squares of the given move,
+     * preferring queen promotions.
+     *
+     * @return the packed move, or {@link PackedMove#NONE} if there is none
+     */
+    public int findMove(Move move) {
+        final int fromIndex = move.fromSquare().getIndex();
+        final int toIndex = move.toSquare().getIndex();
+        int found = PackedMove.NONE;
+
+        generateLegalMoves(scratchMoves);
+
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            final int candidate = scratchMoves.get(i);
+
+            if (PackedMove.getFrom(candidate) != fromIndex || PackedMove.getTo(candidate) != toIndex) {
+                continue;
+            }
+
+            if (found == PackedMove.NONE || PackedMove.getPromotionType(candidate) == Piece.QUEEN) {
+                found = candidate;
             }
         }
 
-        if (kingSquare == null) {
+        return found;
+    }
+
+    public boolean isKingInCheck(int pieceColor) {
+        final long ownKings = kings & (Piece.isWhite(pieceColor) ? whitePieces : blackPieces);
+
+        if (ownKings == 0) {
             throw new IllegalStateException(
                     "No king found with color "
                     + (Piece.isWhite(pieceColor) ? "white" : "black")
             );
         }
 
-        long checkers = (onlyCaptures(generateQueenMoves(kingSquare), kingSquare, kingPiece) & queens & enemyPieces)
-                | (onlyCaptures(generateBishopMoves(kingSquare), kingSquare, kingPiece) & bishops & enemyPieces)
-                | (onlyCaptures(generateRookMoves(kingSquare), kingSquare, kingPiece) & rooks & enemyPieces)
-                | (onlyCaptures(generateKnightMoves(kingSquare), kingSquare, kingPiece) & knights & enemyPieces)
-                | (onlyCaptures(generatePawnMoves(kingSquare), kingSquare, kingPiece) & pawns & enemyPieces);
+        return isSquareAttacked(Long.numberOfTrailingZeros(ownKings), Piece.getOppositeColor(pieceColor));
+    }
+
+    /**
+     * @param index square to look at
+     * @param byColor color of the attacking pieces
+     * @return bitboard of the given color's pieces attacking the square
+     */
+    public long attackersTo(int index, int byColor) {
+        return attackersTo(index, byColor, getAllPieces());
+    }
 
-        return checkers != 0;
+    /**
+     * Same as checking {@link #attackersTo} for a non-empty result, but
+     * returns as soon as the first attacker is found
+     */
+    public boolean isSquareAttacked(int index, int byColor) {
+        return isSquareAttacked(index, byColor, getAllPieces());
     }
 
-    public long onlyCaptures(long moveBitmap, Square fromSquare, int piece) {
-        final long ownPieces = Piece.isWhite(piece) ? whitePieces : blackPieces;
-        final long enemyPieces = Piece.isWhite(piece) ? blackPieces : whitePieces;
+    /**
+     * Static exchange evaluation: https://www.chessprogramming.org/Static_Exchange_Evaluation
+     *
+     * Plays out the captures on the move's target square, each side
+     * recapturing with its least valuable piece and stopping when that
+     * would lose material. Sliders behind a capturing piece join in as it
+     * leaves (x-rays); pins are ignored.
+     *
+     * @return the material won by the side to move, in centipawns
+     */
+    public int staticExchange(int move) {
+        final int toIndex = PackedMove.getTo(move);
+        final int capturedIndex = getCapturedIndex(move);
+        final int[] gain = exchangeGains;
+
+        long occupancy = getAllPieces() & ~Bits.oneAt(capturedIndex);
+        long fromSet = Bits.oneAt(PackedMove.getFrom(move));
+        int pieceType = Piece.getType(getPiece(PackedMove.getFrom(move)));
+        int side = activeColor;
+        int depth = 0;
+
+        gain[0] = EXCHANGE_VALUES[Piece.getType(board[capturedIndex])];
+
+        if (PackedMove.isPromotion(move)) {
+            pieceType = PackedMove.getPromotionType(move);
+            gain[0] += EXCHANGE_VALUES[pieceType] - EXCHANGE_VALUES[Piece.PAWN];
+        }
 
-        long captures = (moveBitmap & ~ownPieces) & enemyPieces;
+        while (true) {
+            depth++;
+            side = Piece.getOppositeColor(side);
 
-        if (Piece.isType(piece, Piece.PAWN)) {
-            captures |= generateEnPassantMoves(fromSquare, getPawnDirection(piece));
+            // What the side gains by recapturing the piece that just moved
+            gain[depth] = EXCHANGE_VALUES[pieceType] - gain[depth - 1];
+
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+
+            occupancy &= ~fromSet;
+
+            // Recomputing the attackers against the new occupancy reveals x-rays
+            final long attackers = attackersTo(toIndex, side, occupancy) & occupancy;
+
+            if (attackers == 0) {
+                break;
+            }
+
+            for (int type : EXCHANGE_ORDER) {
+                final long pieces = attackers & getPieceBitBoard(Piece.create(type, side));
+
+                if (pieces != 0) {
+                    fromSet = pieces & -pieces;
+                    pieceType = type;
+                    break;
+                }
+            }
+        }
+
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
         }
 
-        return captures;
+        return gain[0];
     }
 
     public boolean isLegalMove(Move move) {
-        if (Piece.isType(activeColor, getPiece(move.fromSquare()))) {
-            return false;
-        }
+        return findMove(move) != PackedMove.NONE;
+    }
+
+    /**
+     * Generates every legal move of the side to move into the given list,
+     * replacing its contents.
+     *
+     * Checkers and pinned pieces are found up front: in double check only
+     * the king may move, in single check the other pieces are limited to
+     * capturing the checker or blocking its ray, and pinned pieces may only
+     * move along the line through their king.
+     */
+    public void generateLegalMoves(MoveList moves) {
+        generateMoves(moves, -1L, ALL_MOVES);
+    }
+
+    /**
+     * Generates the legal captures, en passant captures and promotions into
+     * the given list, replacing its contents. Together with
+     * {@link #generateQuietMoves} this generates every legal move once.
+     */
+    public void generateNoisyMoves(MoveList moves) {
+        generateMoves(moves, -1L, NOISY_MOVES);
+    }
 
-        return Bits.overlap(
-                generateMovesFor(move.fromSquare()),
-                move.toSquare().getPositionBitBoard()
-        );
+    /**
+     * Generates the legal moves that are neither captures nor promotions,
+     * including castling, into the given list, replacing its contents
+     */
+    public void generateQuietMoves(MoveList moves) {
+        generateMoves(moves, -1L, QUIET_MOVES);
     }
 
-    public boolean isCastlingMove(Move move) {
-        return Piece.isType(getPiece(move.fromSquare()), Piece.KING)
-                && move.getRankDelta() == 0
-                && Math.abs(move.getFileDelta()) > 1;
+    /**
+     * Checks a packed move from elsewhere, like a hash table or another
+     * position's killer moves, by generating only the moves of its piece
+     */
+    public boolean isLegalMove(int move) {
+        generateMoves(scratchMoves, Bits.oneAt(PackedMove.getFrom(move)), ALL_MOVES);
+        return scratchMoves.contains(move);
     }
 
-    public void handleCastlingMove(Move move) {
-        if (!isCastlingMove(move)) {
+    /**
+     * @param fromMask squares whose pieces' moves are generated
+     * @param kinds {@link #NOISY_MOVES}, {@link #QUIET_MOVES} or both
+     */
+    private void generateMoves(MoveList moves, long fromMask, int kinds) {
+        moves.clear();
+
+        final int enemyColor = Piece.getOppositeColor(activeColor);
+        final long ownPieces = Piece.isWhite(activeColor) ? whitePieces : blackPieces;
+        final long enemyPieces = Piece.isWhite(activeColor) ? blackPieces : whitePieces;
+        final long occupancy = whitePieces | blackPieces;
+
+        final int kingIndex = Long.numberOfTrailingZeros(ownPieces & kings);
+        final long checkers = attackersTo(kingIndex, enemyColor, occupancy);
+
+        // Pawn moves are split by kind in generatePawnMoves, as promotions
+        // are noisy even when they don't capture
+        final long kindMask = ((kinds & NOISY_MOVES) != 0 ? enemyPieces : 0L)
+                | ((kinds & QUIET_MOVES) != 0 ? ~occupancy : 0L);
+
+        // The king can't hide from a slider by stepping back along its ray
+        final long occupancyWithoutKing = occupancy & ~Bits.oneAt(kingIndex);
+        final long kingTargets = Bits.getBit(fromMask, kingIndex)
+                ? MoveHelper.getKingAttacks(kingIndex) & ~ownPieces & kindMask
+                : 0L;
+
+        for (long targets = kingTargets; targets != 0; targets &= targets - 1) {
+            final int toIndex = Long.numberOfTrailingZeros(targets);
+
+            if (!isSquareAttacked(toIndex, enemyColor, occupancyWithoutKing)) {
+                final int flags = Bits.getBit(enemyPieces, toIndex) ? PackedMove.CAPTURE : PackedMove.QUIET;
+                moves.add(PackedMove.create(kingIndex, toIndex, flags));
+            }
+        }
+
+        if (Long.bitCount(checkers) > 1) {
             return;
         }
 
-        final int piece = getPiece(move.fromSquare());
-        final int backrank = getBackrankIndex(piece);
+        final long checkMask = checkers == 0
+                ? -1L
+                : checkers | MoveHelper.getBetween(kingIndex, Long.numberOfTrailingZeros(checkers));
+        final long pinned = getPinnedPieces(kingIndex, ownPieces, enemyPieces, occupancy);
+        final long targets = ~ownPieces & checkMask & kindMask;
+        final long movers = ownPieces & fromMask;
 
-        boolean isKingOnBackRank = Piece.isType(piece, Piece.KING)
-                && move.fromSquare().getRank() == backrank;
+        generatePawnMoves(moves, movers, kinds, kingIndex, pinned, checkMask, enemyPieces, occupancy);
 
-        if (isKingOnBackRank && move.getFileDelta() == 2) {
-            movePiece(getKingRookStartingSquare(piece), new Square(5, backrank));
+        for (long pieces = movers & knights & ~pinned; pieces != 0; pieces &= pieces - 1) {
+            final int fromIndex = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, fromIndex, MoveHelper.getKnightAttacks(fromIndex) & targets, enemyPieces);
         }
 
-        if (isKingOnBackRank && move.getFileDelta() == -2) {
-            movePiece(getQueenRookStartingSquare(piece), new Square(3, backrank));
+        for (long pieces = movers & (bishops | queens); pieces != 0; pieces &= pieces - 1) {
+            final int fromIndex = Long.numberOfTrailingZeros(pieces);
+            final long attacks = MagicBitBoard.getBishopAttacks(fromIndex, occupancy);
+            addMoves(moves, fromIndex, attacks & targets & getPinMask(kingIndex, fromIndex, pinned), enemyPieces);
         }
-    }
 
-    private void updateCastlingRights(Move move) {
-        final int piece = getPiece(move.fromSquare());
-        final Square kRookStartingSquare = getKingRookStartingSquare(piece);
-        final Square qRookStartingSquare = getQueenRookStartingSquare(piece);
+        for (long pieces = movers & (rooks | queens); pieces != 0; pieces &= pieces - 1) {
+            final int fromIndex = Long.numberOfTrailingZeros(pieces);
+            final long attacks = MagicBitBoard.getRookAttacks(fromIndex, occupancy);
+            addMoves(moves, fromIndex, attacks & targets & getPinMask(kingIndex, fromIndex, pinned), enemyPieces);
+        }
 
-        if (Piece.isType(piece, Piece.KING)) {
-            castlingRights.removeKingsideCastlingRight(piece);
-            castlingRights.removeQueensideCastlingRight(piece);
+        if (checkers == 0 && (kinds & QUIET_MOVES) != 0 && Bits.getBit(fromMask, kingIndex)) {
+            generateCastlingMoves(moves, kingIndex, enemyColor, occupancy);
         }
+    }
 
-        if (move.fromSquare().equals(kRookStartingSquare) || move.toSquare().equals(kRookStartingSquare)) {
-            castlingRights.removeKingsideCastlingRight(piece);
+    /**
+     * @return bitboard of the given color's pieces attacking a square, with
+     * sliding attacks computed against the given occupancy
+     */
+    private long attackersTo(int index, int byColor, long occupancy) {
+        final long attackers = Piece.isWhite(byColor) ? whitePieces : blackPieces;
+
+        return ((MoveHelper.getPawnAttacks(Piece.getOppositeColor(byColor), index) & pawns)
+                | (MoveHelper.getKnightAttacks(index) & knights)
+                | (MoveHelper.getKingAttacks(index) & kings)
+                | (MagicBitBoard.getBishopAttacks(index, occupancy) & (bishops | queens))
+                | (MagicBitBoard.getRookAttacks(index, occupancy) & (rooks | queens)))
+                & attackers;
+    }
+
+    private boolean isSquareAttacked(int index, int byColor, long occupancy) {
+        final long attackers = Piece.isWhite(byColor) ? whitePieces : blackPieces;
+
+        return Bits.overlap(MoveHelper.getPawnAttacks(Piece.getOppositeColor(byColor), index), pawns & attackers)
+                || Bits.overlap(MoveHelper.getKnightAttacks(index), knights & attackers)
+                || Bits.overlap(MoveHelper.getKingAttacks(index), kings & attackers)
+                || Bits.overlap(MagicBitBoard.getBishopAttacks(index, occupancy), (bishops | queens) & attackers)
+                || Bits.overlap(MagicBitBoard.getRookAttacks(index, occupancy), (rooks | queens) & attackers);
+    }
+
+    /**
+     * @return bitboard of own pieces that are the only piece between their
+     * king and an enemy slider
+     */
+    private long getPinnedPieces(int kingIndex, long ownPieces, long enemyPieces, long occupancy) {
+        final long snipers = ((MagicBitBoard.getRookAttacks(kingIndex, enemyPieces) & (rooks | queens))
+                | (MagicBitBoard.getBishopAttacks(kingIndex, enemyPieces) & (bishops | queens)))
+                & enemyPieces;
+
+        long pinned = 0L;
+
+        for (long pieces = snipers; pieces != 0; pieces &= pieces - 1) {
+            final long blockers = MoveHelper.getBetween(kingIndex, Long.numberOfTrailingZeros(pieces)) & occupancy;
+
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & ownPieces;
+            }
         }
 
-        if (move.fromSquare().equals(qRookStartingSquare) || move.toSquare().equals(qRookStartingSquare)) {
-            castlingRights.removeQueensideCastlingRight(piece);
+        return pinned;
+    }
+
+    private long getPinMask(int kingIndex, int fromIndex, long pinned) {
+        return Bits.getBit(pinned, fromIndex) ? MoveHelper.getLine(kingIndex, fromIndex) : -1L;
+    }
+
+    /**
+     * Generates the moves of the pawns among the movers. Pushes to the last
+     * rank are noisy, like captures, and all other pushes quiet.
+     */
+    private void generatePawnMoves(
+            MoveList moves, long movers, int kinds, int kingIndex, long pinned, long checkMask, long enemyPieces,
+            long occupancy
+    ) {
+        final boolean isWhite = Piece.isWhite(activeColor);
+        final int up = isWhite ? 8 : -8;
+        final long doublePushRank = isWhite ? BitBoard.RANK_4 : BitBoard.RANK_5;
+        final long promotionRanks = BitBoard.RANK_1 | BitBoard.RANK_8;
+        final boolean noisy = (kinds & NOISY_MOVES) != 0;
+        final boolean quiet = (kinds & QUIET_MOVES) != 0;
+        final long pushMask = (noisy ? promotionRanks : 0L) | (quiet ? ~promotionRanks : 0L);
+
+        for (long pieces = movers & pawns; pieces != 0; pieces &= pieces - 1) {
+            final int fromIndex = Long.numberOfTrailingZeros(pieces);
+            final int pushIndex = fromIndex + up;
+            final long targets = checkMask & getPinMask(kingIndex, fromIndex, pinned);
+
+            if (!Bits.getBit(occupancy, pushIndex)) {
+                if (Bits.getBit(targets & pushMask, pushIndex)) {
+                    addPawnMoves(moves, fromIndex, pushIndex, PackedMove.QUIET);
+                }
+
+                final int doublePushIndex = pushIndex + up;
+                if (quiet && Bits.getBit(doublePushRank & targets & ~occupancy, doublePushIndex)) {
+                    moves.add(PackedMove.create(fromIndex, doublePushIndex, PackedMove.DOUBLE_PAWN_PUSH));
+                }
+            }
+
+            if (!noisy) {
+                continue;
+            }
+
+            final long attacks = MoveHelper.getPawnAttacks(activeColor, fromIndex);
+
+            for (long captures = attacks & enemyPieces & targets; captures != 0; captures &= captures - 1) {
+                addPawnMoves(moves, fromIndex, Long.numberOfTrailingZeros(captures), PackedMove.CAPTURE);
+            }
+
+            if (enPassantSquare != -1 && Bits.getBit(attacks, enPassantSquare)) {
+                generateEnPassantMove(moves, kingIndex, fromIndex, occupancy);
+            }
         }
     }
 
-    private boolean isEnPassantMove(Move move) {
-        if (!Piece.isType(getPiece(move.fromSquare()), Piece.PAWN)) {
-            return false;
+    /**
+     * En passant removes two pieces from the capturing pawn's rank at once,
+     * which the pin mask can't describe, so its legality is checked by
+     * looking for attacks on the king in the resulting occupancy.
+     */
+    private void generateEnPassantMove(MoveList moves, int kingIndex, int fromIndex, long occupancy) {
+        final int move = PackedMove.create(fromIndex, enPassantSquare, PackedMove.EN_PASSANT);
+        final long capturedPawn = Bits.oneAt(getCapturedIndex(move));
+        final long occupancyAfter = (occupancy & ~Bits.oneAt(fromIndex) & ~capturedPawn) | Bits.oneAt(enPassantSquare);
+
+        if ((attackersTo(kingIndex, Piece.getOppositeColor(activeColor), occupancyAfter) & ~capturedPawn) == 0) {
+            moves.add(move);
         }
+    }
 
-        if (Math.abs(move.getRankDelta()) != 1 || Math.abs(move.getFileDelta()) != 1) {
-            return false;
+    /**
+     * Adds a pawn move, expanding it into the four promotions when the pawn
+     * reaches the last rank
+     */
+    private void addPawnMoves(MoveList moves, int fromIndex, int toIndex, int flags) {
+        if (toIndex < 8 || toIndex >= 56) {
+            moves.add(PackedMove.create(fromIndex, toIndex, flags | PackedMove.QUEEN_PROMOTION));
+            moves.add(PackedMove.create(fromIndex, toIndex, flags | PackedMove.ROOK_PROMOTION));
+            moves.add(PackedMove.create(fromIndex, toIndex, flags | PackedMove.BISHOP_PROMOTION));
+            moves.add(PackedMove.create(fromIndex, toIndex, flags | PackedMove.KNIGHT_PROMOTION));
+        } else {
+            moves.add(PackedMove.create(fromIndex, toIndex, flags));
         }
+    }
 
-        return Piece.isType(getPiece(move.toSquare()), Piece.NONE);
+    private void addMoves(MoveList moves, int fromIndex, long targets, long enemyPieces) {
+        for (; targets != 0; targets &= targets - 1) {
+            final int toIndex = Long.numberOfTrailingZeros(targets);
+            final int flags = Bits.getBit(enemyPieces, toIndex) ? PackedMove.CAPTURE : PackedMove.QUIET;
+            moves.add(PackedMove.create(fromIndex, toIndex, flags));
+        }
     }
 
-    private void handleEnPassantMove(Move move) {
-        if (!isEnPassantMove(move)) {
+    /**
+     * Adds the castling moves of a king that is not in check. The king may
+     * not pass through or land on an attacked square.
+     */
+    private void generateCastlingMoves(MoveList moves, int kingIndex, int enemyColor, long occupancy) {
+        if (kingIndex != Square.toIndex(4, getBackrankIndex(activeColor))) {
             return;
         }
 
-        Square captureSquare = move.toSquare().minus(0, move.getRankDelta());
-        removePiece(captureSquare);
-    }
+        final long ownRooks = rooks & (Piece.isWhite(activeColor) ? whitePieces : blackPieces);
 
-    private void updateEnPassantSquare(Move move) {
-        final int dr = move.getRankDelta();
-        final int movedPiece = getPiece(move.fromSquare());
-        final boolean isPawn = Piece.isType(movedPiece, Piece.PAWN);
+        if (castlingRights.hasKingsideCastlingRight(activeColor)
+                && Bits.getBit(ownRooks, kingIndex + 3)
+                && !Bits.overlap(occupancy, MoveHelper.getShortCastlePath(activeColor))
+                && !isSquareAttacked(kingIndex + 1, enemyColor, occupancy)
+                && !isSquareAttacked(kingIndex + 2, enemyColor, occupancy)) {
+            moves.add(PackedMove.create(kingIndex, kingIndex + 2, PackedMove.KING_CASTLE));
+        }
 
-        if (isPawn && Math.abs(dr) == 2) {
-            enPassantSquare.set(move.fromSquare().plus(0, dr / 2));
-        } else {
-            enPassantSquare.set(-1);
+        if (castlingRights.hasQueensideCastlingRight(activeColor)
+                && Bits.getBit(ownRooks, kingIndex - 4)
+                && !Bits.overlap(occupancy, MoveHelper.getLongCastlePath(activeColor))
+                && !isSquareAttacked(kingIndex - 1, enemyColor, occupancy)
+                && !isSquareAttacked(kingIndex - 2, enemyColor, occupancy)) {
+            moves.add(PackedMove.create(kingIndex, kingIndex - 2, PackedMove.QUEEN_CASTLE));
         }
     }
 
@@ -210,10 +744,20 @@ public final class Board {
         }
 
         if (Piece.isType(piece, Piece.KING)) {
-            long moves = MoveHelper.getShiftedKingMovesMask(square.getIndex());
+            long moves = MoveHelper.getKingAttacks(square.getIndex());
 
-            boolean canCastleShort = castlingRights.hasCastlingRight(piece, true);
-            boolean canCastleLong = castlingRights.hasCastlingRight(piece, false);
+            // Castling out of, through or into check isn't allowed
+            final int enemyColor = Piece.getOppositeColor(piece);
+            final int index = square.getIndex();
+            final boolean canCastle = index == Square.toIndex(4, getBackrankIndex(piece))
+                    && !isSquareAttacked(index, enemyColor);
+
+            boolean canCastleShort = castlingRights.hasCastlingRight(piece, true) && canCastle
+                    && !isSquareAttacked(index + 1, enemyColor)
+                    && !isSquareAttacked(index + 2, enemyColor);
+            boolean canCastleLong = castlingRights.hasCastlingRight(piece, false) && canCastle
+                    && !isSquareAttacked(index - 1, enemyColor)
+                    && !isSquareAttacked(index - 2, enemyColor);
 
             long shortCastlePath = MoveHelper.getShortCastlePath(piece);
             long longCastlePath = MoveHelper.getLongCastlePath(piece);
@@ -233,85 +777,28 @@ public final class Board {
     }
 
     private long generateKnightMoves(Square square) {
-        return MoveHelper.getShiftedKnightMovesMask(square.getIndex());
-    }
-
-    /**
-     * Generates all possible moves for a sliding piece (such as a rook, bishop,
-     * or queen) from a given starting square in a specified direction.
-     *
-     * The method iterates from the starting square in the direction specified
-     * by the rank delta (dr) and file delta (df), adding each reachable square
-     * to the move bitboard until it encounters a piece or the edge of the
-     * board.
-     *
-     * @param fromSquare the starting square of the sliding piece
-     * @param dr the change in rank per step (direction row)
-     * @param df the change in file per step (direction file)
-     * @return a bitboard (long) representing all squares the piece can move to
-     * in the given direction
-     */
-    private long generateSlidingMoves(Square fromSquare, int dr, int df) {
-        long moves = 0L;
-
-        int file = fromSquare.getFile() + df;
-        int rank = fromSquare.getRank() + dr;
-
-        while (0 <= file && file < 8 && 0 <= rank && rank < 8) {
-            int index = Square.toIndex(file, rank);
-            moves |= Bits.putBit(moves, index);
-
-            if (Bits.getBit(getAllPieces(), index)) {
-                break;
-            }
-
-            rank += dr;
-            file += df;
-        }
-
-        return moves;
+        return MoveHelper.getKnightAttacks(square.getIndex());
     }
 
     private long generateRookMoves(Square fromSquare) {
-        return generateSlidingMoves(fromSquare, 1, 0)
-                | generateSlidingMoves(fromSquare, 0, 1)
-                | generateSlidingMoves(fromSquare, -1, 0)
-                | generateSlidingMoves(fromSquare, 0, -1);
+        return MagicBitBoard.getRookAttacks(fromSquare.getIndex(), getAllPieces());
     }
 
     private long generateBishopMoves(Square fromSquare) {
-        return generateSlidingMoves(fromSquare, 1, 1)
-                | generateSlidingMoves(fromSquare, 1, -1)
-                | generateSlidingMoves(fromSquare, -1, -1)
-                | generateSlidingMoves(fromSquare, -1, 1);
-
+        return MagicBitBoard.getBishopAttacks(fromSquare.getIndex(), getAllPieces());
     }
 
     private long generateQueenMoves(Square fromSquare) {
-        return generateRookMoves(fromSquare) | generateBishopMoves(fromSquare);
+        return MagicBitBoard.getQueenAttacks(fromSquare.getIndex(), getAllPieces());
     }
 
     private int getPawnDirection(int piece) {
         return Piece.isWhite(piece) ? 1 : -1;
     }
 
-    private long generatePawnAttackSquares(Square fromSquare, int direction) {
-        long attacks = 0L;
-
-        if (fromSquare.getFile() != 0) {
-            attacks |= Bits.oneAt(fromSquare.plus(-1, direction).getIndex());
-        }
-        if (fromSquare.getFile() != 7) {
-            attacks |= Bits.oneAt(fromSquare.plus(1, direction).getIndex());
-        }
-
-        return attacks;
-    }
-
-    private long generateEnPassantMoves(Square fromSquare, int direction) {
-        return generatePawnAttackSquares(fromSquare, direction)
-                & (enPassantSquare.getIndex() != -1
-                ? enPassantSquare.getPositionBitBoard() : 0L);
+    private long generateEnPassantMoves(Square fromSquare, int color) {
+        return MoveHelper.getPawnAttacks(color, fromSquare.getIndex())
+                & (enPassantSquare != -1 ? Bits.oneAt(enPassantSquare) : 0L);
     }
 
     private long generatePawnMoves(Square fromSquare) {
@@ -332,8 +819,8 @@ public final class Board {
                 & Bits.shift(singlePush, up)
                 & ~getAllPieces();
 
-        long attacks = (generatePawnAttackSquares(fromSquare, direction) & opponentPieces)
-                | generateEnPassantMoves(fromSquare, direction);
+        long attacks = (MoveHelper.getPawnAttacks(piece, fromSquare.getIndex()) & opponentPieces)
+                | generateEnPassantMoves(fromSquare, piece);
 
         return singlePush | doublePush | attacks;
     }
@@ -354,40 +841,346 @@ public final class Board {
         return getPiece(square.getIndex());
     }
 
+    /**
+     * @param piece piece type and color, e.g. {@code Piece.create(Piece.ROOK, Piece.WHITE)}
+     * @return bitboard of the squares holding that piece
+     */
+    public long getPieceBitBoard(int piece) {
+        final long colorPieces = getColorBitBoard(piece);
+
+        return colorPieces & switch (Piece.getType(piece)) {
+            case Piece.KING ->
+                kings;
+            case Piece.PAWN ->
+                pawns;
+            case Piece.KNIGHT ->
+                knights;
+            case Piece.BISHOP ->
+                bishops;
+            case Piece.ROOK ->
+                rooks;
+            case Piece.QUEEN ->
+                queens;
+            default ->
+                throw new IllegalArgumentException("Unknown piece type: " + Piece.getType(piece));
+        };
+    }
+
+    public long getColorBitBoard(int color) {
+        return Piece.isWhite(color) ? whitePieces : blackPieces;
+    }
+
+    public int getHalfMoveCounter() {
+        return halfMoveCounter;
+    }
+
+    public int getMoveCounter() {
+        return moveCounter;
+    }
+
+    /**
+     * @return the castling rights as bits: white king side 0b0100, white
+     * queen side 0b1000, black king side 0b0001, black queen side 0b0010
+     */
+    public int getCastlingRights() {
+        return castlingRights.get();
+    }
+
+    /**
+     * @return the square a pawn may capture en passant on, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return whether a pawn of the side to move stands next to the pawn
+     * that just made a double push, whether or not the capture is legal
+     */
+    public boolean canCaptureEnPassant() {
+        if (enPassantSquare == -1) {
+            return false;
+        }
+
+        final int pushed = enPassantSquare + (Piece.isWhite(activeColor) ? -8 : 8);
+        final long ownPawns = pawns & (Piece.isWhite(activeColor) ? whitePieces : blackPieces);
+        final int file = enPassantSquare % 8;
+
+        return (file > 0 && Bits.getBit(ownPawns, pushed - 1)) || (file < 7 && Bits.getBit(ownPawns, pushed + 1));
+    }
+
+    /**
+     * @return true if the position has occurred before since the last
+     * capture or pawn move, with the same side to move
+     */
+    public boolean isRepetition() {
+        final int earliest = Math.max(0, undoCount - halfMoveCounter);
+
+        for (int i = undoCount - 2; i >= earliest; i -= 2) {
+            if (hashHistory[i] == hash) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return how often the position has occurred before since the last
+     * capture or pawn move, with the same side to move, so 2 or more is a
+     * threefold repetition
+     */
+    public int getRepetitionCount() {
+        final int earliest = Math.max(0, undoCount - halfMoveCounter);
+        int count = 0;
+
+        for (int i = undoCount - 2; i >= earliest; i -= 2) {
+            if (hashHistory[i] == hash) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Loads board position from FEN notation:
      * https://en.wikipedia.org/wiki/Forsyth-Edwards_Notation
      *
      * @param fen String containing FEN notation
+     * @throws IllegalArgumentException if the FEN is invalid, in which case
+     * the board is left unchanged
      */
-    public void loadFen(String fen) {
-        String[] segments = fen.split(" ");
+    public void loadFen(CharSequence fen) {
+        loadFen(fen, 0, fen.length());
+    }
 
-        if (segments.length != 6) {
-            throw new IllegalArgumentException(
-                    "Invalid fen string segments (" + segments.length + ") [" + fen + "]"
-            );
+    /**
+     * Loads a FEN from an ASCII byte slice, e.g. straight from a file
+     * buffer, without decoding it to a string first
+     */
+    public void loadFen(byte[] fen, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, fen.length);
+        fenBytes.wrap(fen, offset, length);
+
+        try {
+            loadFen(fenBytes, 0, length);
+        } finally {
+            fenBytes.wrap(null, 0, 0);
+        }
+    }
+
+    /**
+     * Loads the FEN between start (inclusive) and end (exclusive) of the
+     * given characters. The fields may be separated by any run of spaces or
+     * tabs, and everything is validated before the board is changed: there
+     * must be six fields, eight ranks of eight files, one king per side and
+     * well-formed castling rights, en passant square and counters. Nothing
+     * is allocated unless the FEN is invalid.
+     */
+    public void loadFen(CharSequence fen, int start, int end) {
+        final int[] fields = fenFields;
+        int count = 0;
+
+        for (int i = start; i < end; ) {
+            if (isFenSeparator(fen.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            if (count == 6) {
+                throw invalidFen("more than 6 fields", fen, start, end);
+            }
+
+            fields[count * 2] = i;
+
+            while (i < end && !isFenSeparator(fen.charAt(i))) {
+                i++;
+            }
+
+            fields[count * 2 + 1] = i;
+            count++;
         }
 
-        loadFenPiecePlacement(segments[0]);
-        loadFenActiveColor(segments[1]);
-        loadFenCastlingRights(segments[2]);
-        loadFenEnPassantSquare(segments[3]);
-        loadFenMoveData(segments[4], segments[5]);
+        if (count != 6) {
+            throw invalidFen("expected 6 fields but found " + count, fen, start, end);
+        }
+
+        validateFenPiecePlacement(fen, fields[0], fields[1], placement, start, end);
+
+        final int color = parseFenActiveColor(fen, fields[2], fields[3], start, end);
+        final int rights = parseFenCastlingRights(fen, fields[4], fields[5], start, end);
+        final int enPassant = parseFenEnPassantSquare(fen, fields[6], fields[7], color, start, end);
+        final String placementError = validatePlacement(placement, color, enPassant);
+
+        if (placementError != null) {
+            throw invalidFen(placementError, fen, start, end);
+        }
+
+        final int halfMoves = parseFenNumber(fen, fields[8], fields[9], start, end);
+        final int fullMoves = parseFenNumber(fen, fields[10], fields[11], start, end);
+
+        if (fullMoves < 1) {
+            throw invalidFen("full move number must be at least 1", fen, start, end);
+        }
+
+        clear();
+        loadFenPiecePlacement(fen, fields[0], fields[1]);
+
+        activeColor = color;
+        castlingRights.set(rights);
+        enPassantSquare = enPassant;
+        halfMoveCounter = halfMoves;
+        moveCounter = fullMoves;
+
+        hash ^= Zobrist.castlingRights(castlingRights.get()) ^ Zobrist.enPassant(enPassantSquare);
+
+        if (Piece.isBlack(activeColor)) {
+            hash ^= Zobrist.blackToMove();
+        }
+    }
+
+    private static boolean isFenSeparator(char c) {
+        return c == ' ' || c == '\t';
     }
 
-    private void loadFenPiecePlacement(String segment) {
+    private static IllegalArgumentException invalidFen(String reason, CharSequence fen, int start, int end) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): [" + fen.subSequence(start, end) + "]");
+    }
+
+    /**
+     * Checks the shape of the piece placement field and collects a bitboard
+     * per piece, indexed by piece, for {@link #validatePlacement}
+     */
+    private static void validateFenPiecePlacement(CharSequence fen, int from, int to, long[] placement, int start,
+            int end) {
         int rank = 7;
         int file = 0;
+        int whiteKings = 0;
+        int blackKings = 0;
+
+        Arrays.fill(placement, 0L);
+
+        for (int i = from; i < to; i++) {
+            final char c = fen.charAt(i);
 
-        for (char c : segment.toCharArray()) {
             if (c == '/') {
+                if (file != 8) {
+                    throw invalidFen("rank " + (rank + 1) + " doesn't have 8 files", fen, start, end);
+                }
+                if (rank == 0) {
+                    throw invalidFen("more than 8 ranks", fen, start, end);
+                }
+
                 rank--;
                 file = 0;
-                continue;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else if ("kpnbrqKPNBRQ".indexOf(c) >= 0) {
+                whiteKings += c == 'K' ? 1 : 0;
+                blackKings += c == 'k' ? 1 : 0;
+
+                if (file < 8) {
+                    placement[Piece.fromFenChar(c)] |= 1L << Square.toIndex(file, rank);
+                }
+
+                file++;
+            } else {
+                throw invalidFen("unknown piece '" + c + "'", fen, start, end);
+            }
+
+            if (file > 8) {
+                throw invalidFen("rank " + (rank + 1) + " has more than 8 files", fen, start, end);
             }
-            if (Character.isDigit(c)) {
-                file += Character.getNumericValue(c);
+        }
+
+        if (rank != 0 || file != 8) {
+            throw invalidFen("expected 8 ranks of 8 files", fen, start, end);
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            throw invalidFen("expected one king per side", fen, start, end);
+        }
+    }
+
+    /**
+     * Checks what a well-formed placement can still get wrong: pawns on the
+     * first or last rank, an en passant square that no double push can have
+     * left behind, and the side not to move being in check
+     *
+     * @param placement bitboard per piece, indexed by piece, with one king
+     * per side
+     * @param enPassant the en passant square, or -1
+     * @return the reason the position is invalid, or null if it is valid
+     */
+    private static String validatePlacement(long[] placement, int activeColor, int enPassant) {
+        final long pawns = placement[Piece.create(Piece.PAWN, Piece.WHITE)]
+                | placement[Piece.create(Piece.PAWN, Piece.BLACK)];
+
+        if ((pawns & (BitBoard.RANK_1 | BitBoard.RANK_8)) != 0) {
+            return "pawn on rank 1 or 8";
+        }
+
+        long occupancy = 0L;
+
+        for (long pieces : placement) {
+            occupancy |= pieces;
+        }
+
+        final int enemyColor = Piece.getOppositeColor(activeColor);
+
+        if (enPassant != -1) {
+            final boolean isWhite = Piece.isWhite(activeColor);
+
+            if (enPassant >>> 3 != (isWhite ? 5 : 2)) {
+                return "en passant square must be on rank 6 with white to move or rank 3 with black";
+            }
+
+            // The pawn that just moved two squares passed the en passant
+            // square from the square behind it
+            final int pushed = enPassant + (isWhite ? -8 : 8);
+            final int origin = enPassant + (isWhite ? 8 : -8);
+
+            if (Bits.getBit(occupancy, enPassant) || Bits.getBit(occupancy, origin)) {
+                return "en passant square or the square behind it isn't empty";
+            }
+            if (!Bits.getBit(placement[Piece.create(Piece.PAWN, enemyColor)], pushed)) {
+                return "no pawn in front of the en passant square";
+            }
+        }
+
+        final int kingIndex = Long.numberOfTrailingZeros(placement[Piece.create(Piece.KING, enemyColor)]);
+        final long bishops = placement[Piece.create(Piece.BISHOP, activeColor)]
+                | placement[Piece.create(Piece.QUEEN, activeColor)];
+        final long rooks = placement[Piece.create(Piece.ROOK, activeColor)]
+                | placement[Piece.create(Piece.QUEEN, activeColor)];
+
+        final long pawnAttackers = placement[Piece.create(Piece.PAWN, activeColor)];
+        final long knights = placement[Piece.create(Piece.KNIGHT, activeColor)];
+        final long king = placement[Piece.create(Piece.KING, activeColor)];
+
+        if (Bits.overlap(MoveHelper.getPawnAttacks(enemyColor, kingIndex), pawnAttackers)
+                || Bits.overlap(MoveHelper.getKnightAttacks(kingIndex), knights)
+                || Bits.overlap(MoveHelper.getKingAttacks(kingIndex), king)
+                || Bits.overlap(MagicBitBoard.getBishopAttacks(kingIndex, occupancy), bishops)
+                || Bits.overlap(MagicBitBoard.getRookAttacks(kingIndex, occupancy), rooks)) {
+            return "side not to move is in check";
+        }
+
+        return null;
+    }
+
+    private void loadFenPiecePlacement(CharSequence fen, int from, int to) {
+        int rank = 7;
+        int file = 0;
+
+        for (int i = from; i < to; i++) {
+            final char c = fen.charAt(i);
+
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
             } else {
                 setPiece(Piece.fromFenChar(c), Square.toIndex(file, rank));
                 file++;
@@ -395,24 +1188,84 @@ public final class Board {
         }
     }
 
-    private void loadFenActiveColor(String segment) {
-        activeColor = segment.equals("w") ? Piece.WHITE : Piece.BLACK;
+    private static int parseFenActiveColor(CharSequence fen, int from, int to, int start, int end) {
+        if (to - from == 1 && fen.charAt(from) == 'w') {
+            return Piece.WHITE;
+        }
+        if (to - from == 1 && fen.charAt(from) == 'b') {
+            return Piece.BLACK;
+        }
+
+        throw invalidFen("active color must be w or b", fen, start, end);
     }
 
-    private void loadFenCastlingRights(String segment) {
-        castlingRights.setCastlingRight(Piece.WHITE, true, segment.contains("K"));
-        castlingRights.setCastlingRight(Piece.BLACK, true, segment.contains("k"));
-        castlingRights.setCastlingRight(Piece.WHITE, false, segment.contains("Q"));
-        castlingRights.setCastlingRight(Piece.BLACK, false, segment.contains("q"));
+    private static int parseFenCastlingRights(CharSequence fen, int from, int to, int start, int end) {
+        if (to - from == 1 && fen.charAt(from) == '-') {
+            return 0;
+        }
+
+        int rights = 0;
+
+        for (int i = from; i < to; i++) {
+            final int right = switch (fen.charAt(i)) {
+                case 'K' ->
+                    0b0100;
+                case 'Q' ->
+                    0b1000;
+                case 'k' ->
+                    0b0001;
+                case 'q' ->
+                    0b0010;
+                default ->
+                    0;
+            };
+
+            if (right == 0 || (rights & right) != 0) {
+                throw invalidFen("castling rights must be - or a subset of KQkq", fen, start, end);
+            }
+
+            rights |= right;
+        }
+
+        return rights;
     }
 
-    private void loadFenEnPassantSquare(String segment) {
-        enPassantSquare = segment.equals("-") ? new Square(-1) : new Square(Notation.toIndex(segment));
+    /**
+     * The en passant square is behind a pawn that just moved two squares,
+     * so it is on the sixth rank with white to move and the third with black
+     */
+    private static int parseFenEnPassantSquare(CharSequence fen, int from, int to, int color, int start, int end) {
+        if (to - from == 1 && fen.charAt(from) == '-') {
+            return -1;
+        }
+
+        final char expectedRank = Piece.isWhite(color) ? '6' : '3';
+
+        if (to - from != 2 || fen.charAt(from) < 'a' || fen.charAt(from) > 'h' || fen.charAt(from + 1) != expectedRank) {
+            throw invalidFen("en passant square must be - or on rank " + expectedRank, fen, start, end);
+        }
+
+        return Square.toIndex(fen.charAt(from) - 'a', expectedRank - '1');
     }
 
-    private void loadFenMoveData(String halfMoveSegment, String fullMoveSegment) {
-        halfMoveCounter = Integer.parseInt(halfMoveSegment);
-        moveCounter = Integer.parseInt(fullMoveSegment);
+    private static int parseFenNumber(CharSequence fen, int from, int to, int start, int end) {
+        if (to - from > 6) {
+            throw invalidFen("move counter out of range", fen, start, end);
+        }
+
+        int result = 0;
+
+        for (int i = from; i < to; i++) {
+            final char c = fen.charAt(i);
+
+            if (c < '0' || c > '9') {
+                throw invalidFen("move counters must be numbers", fen, start, end);
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
     }
 
     /**
@@ -422,51 +1275,229 @@ public final class Board {
      * @return FEN string
      */
     public String toFen() {
-        String fen = "";
+        return appendFen(new StringBuilder(90)).toString();
+    }
+
+    /**
+     * Appends the position in FEN notation to the given builder, without
+     * allocating beyond the builder's own growth
+     *
+     * @return the builder
+     */
+    public StringBuilder appendFen(StringBuilder fen) {
         int empties = 0;
 
         // Piece placement data
         for (int i = 0; i < board.length; i++) {
             final boolean isRankEnd = i % 8 == 0;
-            final int piece = getPiece(63 - i);
+            final int piece = getPiece(Square.toIndex(i % 8, 7 - i / 8));
 
             if (empties > 0 && (piece != Piece.NONE || isRankEnd)) {
-                fen += empties;
+                fen.append(empties);
                 empties = 0;
             }
 
             if (i > 0 && isRankEnd) {
-                fen += '/';
+                fen.append('/');
             }
 
             if (piece == Piece.NONE) {
                 empties++;
             } else {
-                fen += Piece.toFenChar(piece);
+                fen.append(Piece.toFenChar(piece));
             }
         }
 
+        if (empties > 0) {
+            fen.append(empties);
+        }
+
         // Active color data
-        fen += " ";
-        fen += activeColor == Piece.WHITE ? "w" : "b";
+        fen.append(' ').append(activeColor == Piece.WHITE ? 'w' : 'b');
 
         // Castling rights data
-        fen += " ";
-
-        fen += castlingRights.toFenString();
+        fen.append(' ');
+        castlingRights.appendFen(fen);
 
         // En passant square data
-        fen += " " + (enPassantSquare.getIndex() != -1 ? Notation.toNotation(enPassantSquare) : "-");
+        fen.append(' ');
 
-        // Halfmove data
-        fen += " " + halfMoveCounter;
+        if (enPassantSquare != -1) {
+            fen.append((char) ('a' + enPassantSquare % 8)).append((char) ('1' + enPassantSquare / 8));
+        } else {
+            fen.append('-');
+        }
 
-        // Fullmove data
-        fen += " " + moveCounter;
+        // Halfmove and fullmove data
+        fen.append(' ').append(halfMoveCounter).append(' ').append(moveCounter);
 
         return fen;
     }
 
+    /**
+     * Writes the position in FEN notation as ASCII bytes at the buffer's
+     * position, advancing it
+     *
+     * @throws java.nio.BufferOverflowException if the FEN doesn't fit, in
+     * which case nothing is written
+     */
+    public void writeFen(ByteBuffer buffer) {
+        fenBuilder.setLength(0);
+        appendFen(fenBuilder);
+
+        if (buffer.remaining() < fenBuilder.length()) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < fenBuilder.length(); i++) {
+            buffer.put((byte) fenBuilder.charAt(i));
+        }
+    }
+
+    /**
+     * Writes the position in its fixed-size binary form at the given offset
+     * of the buffer, without moving its position:
+     *
+     * <pre>
+     * bytes  0-7   occupancy bitboard, little-endian
+     * bytes  8-23  one nibble per occupied square, in square order, low
+     *              nibble first: piece type, plus 8 for black pieces
+     * byte   24    bit 0 black to move, bits 1-4 castling rights
+     * byte   25    en passant square + 1, or 0 if there is none
+     * bytes 26-27  half move counter, little-endian
+     * bytes 28-29  full move counter, little-endian
+     * bytes 30-31  reserved, written as 0
+     * </pre>
+     *
+     * Legal positions have at most 32 pieces, so the nibbles always fit.
+     */
+    public void writeBinary(ByteBuffer buffer, int offset) {
+        final long occupancy = getAllPieces();
+
+        if (Long.bitCount(occupancy) > 32 || halfMoveCounter > 0xFFFF || moveCounter > 0xFFFF) {
+            throw new IllegalStateException("Position doesn't fit the binary format: " + toFen());
+        }
+
+        Objects.checkFromIndexSize(offset, BINARY_SIZE, buffer.limit());
+        putLittleEndian(buffer, offset, occupancy, 8);
+
+        putLittleEndian(buffer, offset + 8, 0L, 8);
+        putLittleEndian(buffer, offset + 16, 0L, 8);
+
+        int nibble = 0;
+
+        for (long pieces = occupancy; pieces != 0; pieces &= pieces - 1, nibble++) {
+            final int piece = board[Long.numberOfTrailingZeros(pieces)];
+            final int code = Piece.getType(piece) | (Piece.isBlack(piece) ? 8 : 0);
+            final int index = offset + 8 + nibble / 2;
+
+            buffer.put(index, (byte) (buffer.get(index) | (code << ((nibble & 1) * 4))));
+        }
+
+        buffer.put(offset + 24, (byte) ((Piece.isBlack(activeColor) ? 1 : 0) | (castlingRights.get() << 1)));
+        buffer.put(offset + 25, (byte) (enPassantSquare + 1));
+        putLittleEndian(buffer, offset + 26, halfMoveCounter, 2);
+        putLittleEndian(buffer, offset + 28, moveCounter, 2);
+        putLittleEndian(buffer, offset + 30, 0, 2);
+    }
+
+    /**
+     * Loads a position written by {@link #writeBinary} from the given offset
+     * of the buffer, without moving its position
+     *
+     * @throws IllegalArgumentException if the bytes don't hold a position
+     * with one king per side, no pawns on the first or last rank, an en
+     * passant square a double push can have left and the side not to move
+     * out of check, in which case the board is left unchanged
+     */
+    public void loadBinary(ByteBuffer buffer, int offset) {
+        Objects.checkFromIndexSize(offset, BINARY_SIZE, buffer.limit());
+
+        final long occupancy = getLittleEndian(buffer, offset, 8);
+        final int flags = buffer.get(offset + 24) & 0xFF;
+        final int enPassant = (buffer.get(offset + 25) & 0xFF) - 1;
+
+        if (Long.bitCount(occupancy) > 32 || flags > 0b11111 || enPassant >= 64) {
+            throw new IllegalArgumentException("Invalid binary position at offset " + offset);
+        }
+
+        int whiteKings = 0;
+        int blackKings = 0;
+        int nibble = 0;
+
+        Arrays.fill(placement, 0L);
+
+        for (long pieces = occupancy; pieces != 0; pieces &= pieces - 1) {
+            final int code = getBinaryPieceCode(buffer, offset, nibble++);
+            final int type = code & 0b111;
+
+            if (type < Piece.KING || type > Piece.QUEEN) {
+                throw new IllegalArgumentException("Invalid piece in binary position at offset " + offset);
+            }
+            if (type == Piece.KING) {
+                if ((code & 8) != 0) {
+                    blackKings++;
+                } else {
+                    whiteKings++;
+                }
+            }
+
+            placement[Piece.create(type, (code & 8) != 0 ? Piece.BLACK : Piece.WHITE)] |= Long.lowestOneBit(pieces);
+        }
+
+        if (whiteKings != 1 || blackKings != 1) {
+            throw new IllegalArgumentException("Binary position at offset " + offset + " needs one king per side");
+        }
+
+        final int color = (flags & 1) != 0 ? Piece.BLACK : Piece.WHITE;
+        final String placementError = validatePlacement(placement, color, enPassant);
+
+        if (placementError != null) {
+            throw new IllegalArgumentException(
+                    "Invalid binary position at offset " + offset + " (" + placementError + ")");
+        }
+
+        clear();
+
+        for (int piece = 0; piece < placement.length; piece++) {
+            for (long pieces = placement[piece]; pieces != 0; pieces &= pieces - 1) {
+                setPiece(piece, Long.numberOfTrailingZeros(pieces));
+            }
+        }
+
+        activeColor = color;
+        castlingRights.set(flags >>> 1);
+        enPassantSquare = enPassant;
+        halfMoveCounter = (int) getLittleEndian(buffer, offset + 26, 2);
+        moveCounter = (int) getLittleEndian(buffer, offset + 28, 2);
+
+        hash ^= Zobrist.castlingRights(castlingRights.get()) ^ Zobrist.enPassant(enPassantSquare);
+
+        if (Piece.isBlack(activeColor)) {
+            hash ^= Zobrist.blackToMove();
+        }
+    }
+
+    private static int getBinaryPieceCode(ByteBuffer buffer, int offset, int nibble) {
+        return (buffer.get(offset + 8 + nibble / 2) >>> ((nibble & 1) * 4)) & 0xF;
+    }
+
+    private static void putLittleEndian(ByteBuffer buffer, int offset, long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            buffer.put(offset + i, (byte) (value >>> (i * 8)));
+        }
+    }
+
+    private static long getLittleEndian(ByteBuffer buffer, int offset, int bytes) {
+        long value = 0;
+
+        for (int i = 0; i < bytes; i++) {
+            value |= (buffer.get(offset + i) & 0xFFL) << (i * 8);
+        }
+
+        return value;
+    }
+
     /**
      * Prints the current state of the chess board and game information to the
      * standard output.
@@ -475,7 +1506,7 @@ public final class Board {
         System.out.println((activeColor == Piece.WHITE ? "White" : "Black") + " to move");
         System.out.println("Move counter: " + moveCounter);
         System.out.println("Halfmove counter: " + halfMoveCounter);
-        System.out.println("En passant square: " + enPassantSquare);
+        System.out.println("En passant square: " + (enPassantSquare != -1 ? Notation.toNotation(enPassantSquare) : "-"));
 
         System.out.println("White can"
                 + (castlingRights.hasCastlingRight(Piece.WHITE, true) ? "" : "'t")
@@ -511,6 +1542,10 @@ public final class Board {
     private void setPiece(int piece, int pos) {
         final long position = Bits.oneAt(pos);
 
+        if (board[pos] != Piece.NONE) {
+            removePiece(pos);
+        }
+
         if (Piece.isColor(piece, Piece.WHITE)) {
             whitePieces |= position;
             blackPieces &= ~position;
@@ -537,6 +1572,10 @@ public final class Board {
         }
 
         board[pos] = piece;
+        hash ^= Zobrist.piece(piece, pos);
+        midgameScore += PieceSquareTables.midgame(piece, pos);
+        endgameScore += PieceSquareTables.endgame(piece, pos);
+        phase += PieceSquareTables.phase(piece);
     }
 
     private void removePiece(int pos) {
@@ -563,10 +1602,10 @@ public final class Board {
         }
 
         board[pos] = Piece.NONE;
-    }
-
-    private void removePiece(Square square) {
-        removePiece(square.getIndex());
+        hash ^= Zobrist.piece(piece, pos);
+        midgameScore -= PieceSquareTables.midgame(piece, pos);
+        endgameScore -= PieceSquareTables.endgame(piece, pos);
+        phase -= PieceSquareTables.phase(piece);
     }
 
     private void movePiece(int fromIndex, int toIndex) {
@@ -574,8 +1613,14 @@ public final class Board {
         removePiece(fromIndex);
     }
 
-    private void movePiece(Square fromSquare, Square toSquare) {
-        movePiece(fromSquare.getIndex(), toSquare.getIndex());
+    private void clear() {
+        Arrays.fill(board, Piece.NONE);
+        whitePieces = blackPieces = 0L;
+        kings = pawns = knights = bishops = rooks = queens = 0L;
+        hash = 0L;
+        midgameScore = endgameScore = phase = 0;
+        lastMove = PackedMove.NONE;
+        undoCount = 0;
     }
 
     private long getAllPieces() {
@@ -585,12 +1630,4 @@ public final class Board {
     private int getBackrankIndex(int piece) {
         return Piece.isWhite(piece) ? 0 : 7;
     }
-
-    private Square getKingRookStartingSquare(int color) {
-        return new Square(7, getBackrankIndex(color));
-    }
-
-    private Square getQueenRookStartingSquare(int color) {
-        return new Square(7, getBackrankIndex(color));
-    }
 }
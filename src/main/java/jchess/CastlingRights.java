@@ -1,5 +1,7 @@
 package jchess;
 
+import java.util.Arrays;
+
 public class CastlingRights {
 
     private int castlingRights = 0b1111;
@@ -9,6 +11,23 @@ public class CastlingRights {
     private final int KINGS_MASK = 0b0101;
     private final int QUEEN_MASK = 0b1010;
 
+    /**
+     * Castling rights kept when a move touches each square, indexed by
+     * square. Moving from or to a king or rook home square clears the
+     * matching rights.
+     */
+    private static final int[] RETAINED_RIGHTS = new int[64];
+
+    static {
+        Arrays.fill(RETAINED_RIGHTS, 0b1111);
+        RETAINED_RIGHTS[Square.toIndex(4, 0)] = 0b0011;
+        RETAINED_RIGHTS[Square.toIndex(7, 0)] = 0b1011;
+        RETAINED_RIGHTS[Square.toIndex(0, 0)] = 0b0111;
+        RETAINED_RIGHTS[Square.toIndex(4, 7)] = 0b1100;
+        RETAINED_RIGHTS[Square.toIndex(7, 7)] = 0b1110;
+        RETAINED_RIGHTS[Square.toIndex(0, 7)] = 0b1101;
+    }
+
     private int getMask(int color, boolean kingside) {
         return (Piece.isWhite(color) ? WHITE_MASK : BLACK_MASK) & (kingside ? KINGS_MASK : QUEEN_MASK);
     }
@@ -35,6 +54,21 @@ public class CastlingRights {
         removeCastlingRight(color, false);
     }
 
+    /**
+     * Removes the castling rights lost by a move between the given squares
+     */
+    public void update(int fromIndex, int toIndex) {
+        castlingRights &= RETAINED_RIGHTS[fromIndex] & RETAINED_RIGHTS[toIndex];
+    }
+
+    public int get() {
+        return castlingRights;
+    }
+
+    public void set(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
+
     public boolean hasCastlingRight(int color, boolean kingside) {
         final int mask = getMask(color, kingside);
         return Bits.overlap(castlingRights, mask);
@@ -49,21 +83,32 @@ public class CastlingRights {
     }
 
     public String toFenString() {
-        String result = "";
+        return appendFen(new StringBuilder(4)).toString();
+    }
+
+    /**
+     * Appends the rights in FEN notation, or "-" if there are none
+     *
+     * @return the builder
+     */
+    public StringBuilder appendFen(StringBuilder fen) {
+        if (castlingRights == 0) {
+            return fen.append('-');
+        }
 
         if (hasCastlingRight(Piece.WHITE, true)) {
-            result += 'K';
+            fen.append('K');
         }
         if (hasCastlingRight(Piece.WHITE, false)) {
-            result += 'Q';
+            fen.append('Q');
         }
         if (hasCastlingRight(Piece.BLACK, true)) {
-            result += 'k';
+            fen.append('k');
         }
         if (hasCastlingRight(Piece.BLACK, false)) {
-            result += 'q';
+            fen.append('q');
         }
 
-        return result;
+        return fen;
     }
 }
@@ -1,7 +1,15 @@
 package jchess;
 
+/**
+ * Square based view of a move, used by the GUI. Move generation and search
+ * work on {@link PackedMove} ints instead.
+ */
 public record Move(Square fromSquare, Square toSquare) {
 
+    public static Move fromPacked(int move) {
+        return new Move(new Square(PackedMove.getFrom(move)), new Square(PackedMove.getTo(move)));
+    }
+
     public int getFileDelta() {
         return toSquare.getFile() - fromSquare.getFile();
     }
@@ -2,8 +2,38 @@ package jchess;
 
 public class MoveHelper {
 
-    private static final long KNIGHT_MOVES = 0b01010000_10001000_00000000_10001000_01010000_00000000_00000000_00000000L;
-    private static final long KING_MOVES = 0b00000000_00000000_00000000_00000000_00000000_00000111_00000101_00000111L;
+    private static final int[][] KNIGHT_DELTAS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING_DELTAS = {{0, 1}, {1, 1}, {1, 0}, {1, -1}, {0, -1}, {-1, -1}, {-1, 0}, {-1, 1}};
+    private static final int[][] WHITE_PAWN_DELTAS = {{-1, 1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_DELTAS = {{-1, -1}, {1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = generateLeaperAttacks(KNIGHT_DELTAS);
+    private static final long[] KING_ATTACKS = generateLeaperAttacks(KING_DELTAS);
+    private static final long[] WHITE_PAWN_ATTACKS = generateLeaperAttacks(WHITE_PAWN_DELTAS);
+    private static final long[] BLACK_PAWN_ATTACKS = generateLeaperAttacks(BLACK_PAWN_DELTAS);
+
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    static {
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+
+                final long ends = Bits.oneAt(a) | Bits.oneAt(b);
+
+                if (Bits.getBit(MagicBitBoard.getRookAttacks(a, 0L), b)) {
+                    BETWEEN[a * 64 + b] = MagicBitBoard.getRookAttacks(a, ends) & MagicBitBoard.getRookAttacks(b, ends);
+                    LINE[a * 64 + b] = (MagicBitBoard.getRookAttacks(a, 0L) & MagicBitBoard.getRookAttacks(b, 0L)) | ends;
+                } else if (Bits.getBit(MagicBitBoard.getBishopAttacks(a, 0L), b)) {
+                    BETWEEN[a * 64 + b] = MagicBitBoard.getBishopAttacks(a, ends) & MagicBitBoard.getBishopAttacks(b, ends);
+                    LINE[a * 64 + b] = (MagicBitBoard.getBishopAttacks(a, 0L) & MagicBitBoard.getBishopAttacks(b, 0L)) | ends;
+                }
+            }
+        }
+    }
 
     public static final long WHITE_SHORT_CASTLE_PATH = 0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_01100000L;
     public static final long WHITE_LONG_CASTLE_PATH = 0b00000000_00000000_00000000_00000000_00000000_00000000_00000000_00001110L;
@@ -11,51 +41,37 @@ public class MoveHelper {
     public static final long BLACK_SHORT_CASTLE_PATH = 0b01100000_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
     public static final long BLACK_LONG_CASTLE_PATH = 0b00001110_00000000_00000000_00000000_00000000_00000000_00000000_00000000L;
 
-    public static long getShiftedKnightMovesMask(int index) {
-        Square square = new Square(index);
-
-        long mask = KNIGHT_MOVES;
-
-        if (square.getRank() >= 7) {
-            mask &= ~BitBoard.RANK_1;
-        }
-        if (square.getRank() >= 6) {
-            mask &= ~BitBoard.RANK_2;
-        }
-        if (square.getFile() >= 7) {
-            mask &= ~BitBoard.FILE_7;
-        }
-        if (square.getFile() >= 6) {
-            mask &= ~BitBoard.FILE_8;
-        }
-        if (square.getFile() <= 1) {
-            mask &= ~BitBoard.FILE_4;
-        }
-        if (square.getFile() <= 0) {
-            mask &= ~BitBoard.FILE_5;
-        }
+    public static long getKnightAttacks(int index) {
+        return KNIGHT_ATTACKS[index];
+    }
 
-        return Bits.shift(mask, index - new Square(5, 5).getIndex());
+    public static long getKingAttacks(int index) {
+        return KING_ATTACKS[index];
     }
 
-    public static long getShiftedKingMovesMask(int index) {
-        Square square = new Square(index);
-        long mask = KING_MOVES;
+    /**
+     * @param color color of the attacking pawn
+     * @param index square the pawn stands on
+     * @return bitboard of the (at most two) squares the pawn attacks
+     */
+    public static long getPawnAttacks(int color, int index) {
+        return Piece.isWhite(color) ? WHITE_PAWN_ATTACKS[index] : BLACK_PAWN_ATTACKS[index];
+    }
 
-        if (square.getFile() == 0) {
-            mask &= ~BitBoard.FILE_1;
-        }
-        if (square.getRank() == 0) {
-            mask &= ~BitBoard.RANK_1;
-        }
-        if (square.getRank() == 7) {
-            mask &= ~BitBoard.RANK_3;
-        }
-        if (square.getFile() == 7) {
-            mask &= ~BitBoard.FILE_3;
-        }
+    /**
+     * @return the squares strictly between two squares on the same rank,
+     * file or diagonal, or an empty bitboard if they aren't aligned
+     */
+    public static long getBetween(int a, int b) {
+        return BETWEEN[a * 64 + b];
+    }
 
-        return Bits.shift(mask, index - new Square(1, 1).getIndex());
+    /**
+     * @return the whole rank, file or diagonal running through both squares,
+     * or an empty bitboard if they aren't aligned
+     */
+    public static long getLine(int a, int b) {
+        return LINE[a * 64 + b];
     }
 
     public static long getShortCastlePath(int piece) {
@@ -66,4 +82,21 @@ public class MoveHelper {
         return Piece.isWhite(piece) ? WHITE_LONG_CASTLE_PATH : BLACK_LONG_CASTLE_PATH;
     }
 
+    private static long[] generateLeaperAttacks(int[][] deltas) {
+        final long[] attacks = new long[64];
+
+        for (int index = 0; index < 64; index++) {
+            for (int[] delta : deltas) {
+                final int file = index % 8 + delta[0];
+                final int rank = index / 8 + delta[1];
+
+                if (0 <= file && file < 8 && 0 <= rank && rank < 8) {
+                    attacks[index] = Bits.putBit(attacks[index], Square.toIndex(file, rank));
+                }
+            }
+        }
+
+        return attacks;
+    }
+
 }
@@ -8,7 +8,7 @@ public class Notation {
         }
 
         final int file = notation.charAt(0) - 'a';
-        final int rank = Character.getNumericValue(notation.charAt(1));
+        final int rank = Character.getNumericValue(notation.charAt(1)) - 1;
         return Square.toIndex(file, rank);
     }
 
@@ -17,7 +17,7 @@ public class Notation {
     }
 
     public static String toNotation(Square square) {
-        return getFileCharacter(square.getFile()) + String.valueOf(square.getRank());
+        return getFileCharacter(square.getFile()) + String.valueOf(square.getRank() + 1);
     }
 
     public static String getFileCharacter(int file) {
@@ -0,0 +1,100 @@
+package jchess;
+
+/**
+ * Moves packed into the low 16 bits of an int, so they can be generated,
+ * stored and compared without allocating:
+ *
+ * <pre>
+ * bits  0-5   from square index
+ * bits  6-11  to square index
+ * bits 12-15  flags
+ * </pre>
+ *
+ * The flags follow the usual from-to-flags layout: bit 2 marks captures,
+ * bit 3 promotions (with the promotion piece in the two low bits), and the
+ * remaining quiet values mark double pawn pushes and castling.
+ */
+public class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0b0000;
+    public static final int DOUBLE_PAWN_PUSH = 0b0001;
+    public static final int KING_CASTLE = 0b0010;
+    public static final int QUEEN_CASTLE = 0b0011;
+    public static final int CAPTURE = 0b0100;
+    public static final int EN_PASSANT = 0b0101;
+    public static final int KNIGHT_PROMOTION = 0b1000;
+    public static final int BISHOP_PROMOTION = 0b1001;
+    public static final int ROOK_PROMOTION = 0b1010;
+    public static final int QUEEN_PROMOTION = 0b1011;
+    public static final int KNIGHT_PROMOTION_CAPTURE = 0b1100;
+    public static final int BISHOP_PROMOTION_CAPTURE = 0b1101;
+    public static final int ROOK_PROMOTION_CAPTURE = 0b1110;
+    public static final int QUEEN_PROMOTION_CAPTURE = 0b1111;
+
+    private static final int CAPTURE_FLAG = 0b0100;
+    private static final int PROMOTION_FLAG = 0b1000;
+    private static final int PROMOTION_PIECE_MASK = 0b0011;
+
+    public static int create(int fromIndex, int toIndex, int flags) {
+        return fromIndex | (toIndex << 6) | (flags << 12);
+    }
+
+    public static int getFrom(int move) {
+        return move & 0b111111;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> 6) & 0b111111;
+    }
+
+    public static int getFlags(int move) {
+        return (move >>> 12) & 0b1111;
+    }
+
+    public static boolean isCapture(int move) {
+        return (getFlags(move) & CAPTURE_FLAG) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (getFlags(move) & PROMOTION_FLAG) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return getFlags(move) == EN_PASSANT;
+    }
+
+    public static boolean isCastle(int move) {
+        final int flags = getFlags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static boolean isDoublePawnPush(int move) {
+        return getFlags(move) == DOUBLE_PAWN_PUSH;
+    }
+
+    /**
+     * @return the piece type a promotion promotes to, or {@link Piece#NONE}
+     */
+    public static int getPromotionType(int move) {
+        if (!isPromotion(move)) {
+            return Piece.NONE;
+        }
+
+        return Piece.KNIGHT + (getFlags(move) & PROMOTION_PIECE_MASK);
+    }
+
+    /**
+     * Formats the move in long algebraic (UCI) notation, e.g. e2e4 or e7e8q
+     */
+    public static String toString(int move) {
+        final String result = Notation.toNotation(getFrom(move)) + Notation.toNotation(getTo(move));
+
+        if (!isPromotion(move)) {
+            return result;
+        }
+
+        return result + Piece.toFenChar(Piece.create(getPromotionType(move), Piece.BLACK));
+    }
+}
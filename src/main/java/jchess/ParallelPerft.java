@@ -0,0 +1,142 @@
+package jchess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft split into fork/join tasks. The tree is split into one task per
+ * move for the first {@code splitDepth} plies, and each task counts its
+ * subtree on its own copy of the board with a sequential {@link Perft}.
+ * Subtask results are summed in move generation order, so divide output is
+ * the same regardless of scheduling.
+ */
+public final class ParallelPerft {
+
+    private final int parallelism;
+    private final int splitDepth;
+
+    public ParallelPerft(int parallelism) {
+        this(parallelism, 1);
+    }
+
+    public ParallelPerft(int parallelism, int splitDepth) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("Invalid split depth: " + splitDepth);
+        }
+
+        this.parallelism = parallelism;
+        this.splitDepth = splitDepth;
+    }
+
+    public PerftResult run(Board board, int depth) {
+        final long start = System.nanoTime();
+        final long nodes = invoke(new PerftTask(new Board(board), depth, splitDepth));
+
+        return new PerftResult(depth, nodes, System.nanoTime() - start, Collections.emptyMap());
+    }
+
+    /**
+     * Like {@link #run}, but also reports the leaf count below each root
+     * move, in generation order
+     */
+    public PerftResult divide(Board board, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+
+        final long start = System.nanoTime();
+        final MoveList moves = new MoveList();
+        final List<PerftTask> tasks = new ArrayList<>();
+
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            tasks.add(PerftTask.after(board, moves.get(i), depth - 1, splitDepth - 1));
+        }
+
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        long nodes = 0;
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(tasks);
+                    return null;
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long count = tasks.get(i).join();
+            divide.put(PackedMove.toString(moves.get(i)), count);
+            nodes += count;
+        }
+
+        return new PerftResult(depth, nodes, System.nanoTime() - start, divide);
+    }
+
+    private long invoke(PerftTask task) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final class PerftTask extends RecursiveTask<Long> {
+
+        private final Board board;
+        private final int depth;
+        private final int splitDepth;
+
+        private PerftTask(Board board, int depth, int splitDepth) {
+            this.board = board;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        private static PerftTask after(Board board, int move, int depth, int splitDepth) {
+            final Board copy = new Board(board);
+            copy.makeMove(move);
+            return new PerftTask(copy, depth, splitDepth);
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitDepth <= 0 || depth <= 1) {
+                return new Perft(board).perft(depth);
+            }
+
+            final MoveList moves = new MoveList();
+            final List<PerftTask> tasks = new ArrayList<>();
+
+            board.generateLegalMoves(moves);
+
+            for (int i = 0; i < moves.size(); i++) {
+                tasks.add(after(board, moves.get(i), depth - 1, splitDepth - 1));
+            }
+
+            long nodes = 0;
+
+            for (PerftTask task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+
+            return nodes;
+        }
+    }
+}
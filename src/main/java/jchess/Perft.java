@@ -0,0 +1,142 @@
+package jchess;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree of a position to a fixed
+ * depth: https://www.chessprogramming.org/Perft
+ *
+ * The board is walked with makeMove/unmakeMove, generating into one
+ * preallocated move list per ply, and the last ply is bulk counted from the
+ * size of the move list instead of making each move.
+ *
+ * Optionally, subtree counts are cached in a fixed-size table keyed by the
+ * position's Zobrist key and the remaining depth, so transpositions are only
+ * counted once. Colliding entries are simply overwritten.
+ */
+public final class Perft {
+
+    private static final int MAX_DEPTH = 64;
+    private static final int CACHE_ENTRY_BYTES = 16;
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    private final Board board;
+    private final MoveList[] moveLists = new MoveList[MAX_DEPTH + 1];
+
+    private final long[] cacheKeys;
+    private final long[] cacheCounts;
+    private final int cacheMask;
+
+    public Perft(Board board) {
+        this(board, 0);
+    }
+
+    /**
+     * @param cacheSizeMb size of the subtree count cache in megabytes,
+     * rounded down to a power of two number of entries, or 0 for no cache
+     */
+    public Perft(Board board, int cacheSizeMb) {
+        this.board = board;
+
+        final int entries = cacheSizeMb > 0
+                ? Integer.highestOneBit((int) Math.min((long) cacheSizeMb * 1024 * 1024 / CACHE_ENTRY_BYTES, 1 << 30))
+                : 0;
+
+        cacheKeys = new long[entries];
+        cacheCounts = new long[entries];
+        cacheMask = entries - 1;
+
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    public PerftResult run(int depth) {
+        final long start = System.nanoTime();
+        final long nodes = perft(depth);
+
+        return new PerftResult(depth, nodes, System.nanoTime() - start, Collections.emptyMap());
+    }
+
+    /**
+     * Like {@link #run}, but also reports the leaf count below each root
+     * move, in generation order
+     */
+    public PerftResult divide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+
+        checkDepth(depth);
+
+        final long start = System.nanoTime();
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        final MoveList moves = moveLists[depth];
+        long nodes = 0;
+
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            long count = 1;
+
+            if (depth > 1) {
+                board.makeMove(move);
+                count = perft(depth - 1);
+                board.unmakeMove();
+            }
+
+            divide.put(PackedMove.toString(move), count);
+            nodes += count;
+        }
+
+        return new PerftResult(depth, nodes, System.nanoTime() - start, divide);
+    }
+
+    public long perft(int depth) {
+        checkDepth(depth);
+
+        if (depth == 0) {
+            return 1;
+        }
+
+        final MoveList moves = moveLists[depth];
+
+        if (depth == 1) {
+            board.generateLegalMoves(moves);
+            return moves.size();
+        }
+
+        final long key = board.hash() ^ (depth * DEPTH_KEY);
+        final int slot = (int) key & cacheMask;
+
+        if (cacheKeys.length > 0 && cacheKeys[slot] == key) {
+            return cacheCounts[slot];
+        }
+
+        board.generateLegalMoves(moves);
+
+        long nodes = 0;
+
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(depth - 1);
+            board.unmakeMove();
+        }
+
+        if (cacheKeys.length > 0) {
+            cacheKeys[slot] = key;
+            cacheCounts[slot] = nodes;
+        }
+
+        return nodes;
+    }
+
+    private void checkDepth(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Invalid perft depth: " + depth);
+        }
+    }
+}
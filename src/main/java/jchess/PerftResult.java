@@ -0,0 +1,35 @@
+package jchess;
+
+import java.util.Map;
+
+/**
+ * Outcome of a perft run: the number of leaf nodes, how long counting took
+ * and, for divide runs, the leaf count below each root move keyed by the
+ * move in long algebraic notation.
+ */
+public record PerftResult(int depth, long nodes, long nanos, Map<String, Long> divide) {
+
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+
+        for (Map.Entry<String, Long> entry : divide.entrySet()) {
+            result.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+
+        if (!divide.isEmpty()) {
+            result.append('\n');
+        }
+
+        result.append("Depth: ").append(depth).append('\n');
+        result.append("Nodes: ").append(nodes).append('\n');
+        result.append("Time: ").append(nanos / 1_000_000).append(" ms\n");
+        result.append("Nodes/second: ").append(nodesPerSecond());
+
+        return result.toString();
+    }
+}
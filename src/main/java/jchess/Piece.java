@@ -44,6 +44,10 @@ public class Piece {
         return piece & TYPE_MASK;
     }
 
+    public static int getOppositeColor(int piece) {
+        return isWhite(piece) ? BLACK : WHITE;
+    }
+
     public static int fromFenChar(char fenChar) {
         int piece = switch (Character.toLowerCase(fenChar)) {
             case 'k' ->
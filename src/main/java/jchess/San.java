@@ -0,0 +1,233 @@
+package jchess;
+
+/**
+ * Standard algebraic notation: https://www.chessprogramming.org/Algebraic_Chess_Notation#SAN
+ *
+ * Moves are resolved against the legal moves of the position, so a SAN move
+ * only names what is needed to tell it apart: the piece, the target square,
+ * a from file or rank when several pieces of the kind can reach the
+ * target, and the promotion piece. Check and annotation suffixes are
+ * ignored, {@code 0-0} is read like {@code O-O}, and promotions may leave
+ * out the {@code =}. Formatted moves always use the standard form.
+ */
+public final class San {
+
+    private San() {
+    }
+
+    /**
+     * Resolves a SAN move without allocating unless it is invalid
+     *
+     * @param moves scratch list the legal moves are generated into
+     * @return the legal move the SAN move names
+     * @throws IllegalArgumentException if the move is malformed, illegal or
+     * ambiguous
+     */
+    public static int parse(Board board, CharSequence san, MoveList moves) {
+        int end = san.length();
+
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+
+        board.generateLegalMoves(moves);
+
+        if (isCastling(san, end, 5)) {
+            return findCastling(moves, PackedMove.QUEEN_CASTLE, san);
+        }
+        if (isCastling(san, end, 3)) {
+            return findCastling(moves, PackedMove.KING_CASTLE, san);
+        }
+
+        int start = 0;
+        int type = Piece.PAWN;
+
+        if (end > 0 && "KQRBN".indexOf(san.charAt(0)) >= 0) {
+            type = Piece.getType(Piece.fromFenChar(san.charAt(0)));
+            start = 1;
+        }
+
+        int promotion = Piece.NONE;
+
+        if (type == Piece.PAWN && end - start >= 3 && "QRBN".indexOf(san.charAt(end - 1)) >= 0) {
+            promotion = Piece.getType(Piece.fromFenChar(san.charAt(end - 1)));
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+
+        if (end - start < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            throw invalid("no target square", san);
+        }
+
+        final int to = Square.toIndex(san.charAt(end - 2) - 'a', san.charAt(end - 1) - '1');
+        int fromFile = -1;
+        int fromRank = -1;
+
+        for (int i = start; i < end - 2; i++) {
+            final char c = san.charAt(i);
+
+            if (isFile(c) && fromFile == -1 && fromRank == -1) {
+                fromFile = c - 'a';
+            } else if (isRank(c) && fromRank == -1) {
+                fromRank = c - '1';
+            } else if (c != 'x' || i != end - 3) {
+                throw invalid("unexpected '" + c + "'", san);
+            }
+        }
+
+        int found = PackedMove.NONE;
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final int from = PackedMove.getFrom(move);
+
+            if (PackedMove.getTo(move) != to
+                    || Piece.getType(board.getPiece(from)) != type
+                    || PackedMove.isCastle(move)
+                    || (fromFile != -1 && from % 8 != fromFile)
+                    || (fromRank != -1 && from / 8 != fromRank)) {
+                continue;
+            }
+
+            if (PackedMove.isPromotion(move) && promotion == Piece.NONE) {
+                throw invalid("missing promotion piece", san);
+            }
+            if (PackedMove.getPromotionType(move) != promotion) {
+                continue;
+            }
+            if (found != PackedMove.NONE) {
+                throw invalid("ambiguous", san);
+            }
+
+            found = move;
+        }
+
+        if (found == PackedMove.NONE) {
+            throw invalid("illegal", san);
+        }
+
+        return found;
+    }
+
+    /**
+     * Formats a legal move in SAN, naming the from file or rank only when
+     * another piece of the kind can reach the target, and marking checks
+     * with {@code +} and mates with {@code #}
+     *
+     * @param moves scratch list the legal moves are generated into
+     */
+    public static String toString(Board board, int move, MoveList moves) {
+        final StringBuilder san = new StringBuilder(8);
+        final int from = PackedMove.getFrom(move);
+        final int to = PackedMove.getTo(move);
+        final int type = Piece.getType(board.getPiece(from));
+
+        if (PackedMove.getFlags(move) == PackedMove.KING_CASTLE) {
+            san.append("O-O");
+        } else if (PackedMove.getFlags(move) == PackedMove.QUEEN_CASTLE) {
+            san.append("O-O-O");
+        } else {
+            if (type == Piece.PAWN) {
+                if (PackedMove.isCapture(move)) {
+                    san.append(Notation.getFileCharacter(from % 8));
+                }
+            } else {
+                san.append(Piece.toFenChar(Piece.create(type, Piece.WHITE)));
+                appendDisambiguation(san, board, move, moves);
+            }
+
+            if (PackedMove.isCapture(move)) {
+                san.append('x');
+            }
+
+            san.append(Notation.toNotation(to));
+
+            if (PackedMove.isPromotion(move)) {
+                san.append('=').append(Piece.toFenChar(Piece.create(PackedMove.getPromotionType(move), Piece.WHITE)));
+            }
+        }
+
+        board.makeMove(move);
+
+        if (board.isKingInCheck(board.activeColor)) {
+            board.generateLegalMoves(moves);
+            san.append(moves.size() == 0 ? '#' : '+');
+        }
+
+        board.unmakeMove();
+
+        return san.toString();
+    }
+
+    private static void appendDisambiguation(StringBuilder san, Board board, int move, MoveList moves) {
+        final int from = PackedMove.getFrom(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int other = PackedMove.getFrom(moves.get(i));
+
+            if (other != from
+                    && PackedMove.getTo(moves.get(i)) == PackedMove.getTo(move)
+                    && board.getPiece(other) == board.getPiece(from)) {
+                ambiguous = true;
+                sameFile |= other % 8 == from % 8;
+                sameRank |= other / 8 == from / 8;
+            }
+        }
+
+        if (ambiguous && (!sameFile || sameRank)) {
+            san.append(Notation.getFileCharacter(from % 8));
+        }
+        if (sameFile) {
+            san.append(from / 8 + 1);
+        }
+    }
+
+    /**
+     * @param length 3 for {@code O-O}, 5 for {@code O-O-O}
+     */
+    private static boolean isCastling(CharSequence san, int end, int length) {
+        if (end != length) {
+            return false;
+        }
+
+        final char castle = san.charAt(0);
+
+        if (castle != 'O' && castle != '0') {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (san.charAt(i) != (i % 2 == 0 ? castle : '-')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int findCastling(MoveList moves, int flags, CharSequence san) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.getFlags(moves.get(i)) == flags) {
+                return moves.get(i);
+            }
+        }
+
+        throw invalid("illegal", san);
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+    private static IllegalArgumentException invalid(String reason, CharSequence san) {
+        return new IllegalArgumentException("Invalid SAN (" + reason + "): [" + san + "]");
+    }
+}
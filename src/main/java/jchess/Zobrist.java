@@ -0,0 +1,54 @@
+package jchess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing: https://www.chessprogramming.org/Zobrist_Hashing
+ *
+ * A position's key is the XOR of the keys of every piece on its square, the
+ * castling rights, the en passant file and, with black to move, the side
+ * key, so it can be updated incrementally as pieces move. The keys come
+ * from a fixed seed and are the same in every run.
+ */
+public class Zobrist {
+
+    private static final long[] PIECES = new long[32 * 64];
+    private static final long[] CASTLING_RIGHTS = new long[16];
+    private static final long[] EN_PASSANT_FILES = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        final SplittableRandom random = new SplittableRandom(0x4A436865737321L);
+
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        for (int i = 0; i < CASTLING_RIGHTS.length; i++) {
+            CASTLING_RIGHTS[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILES.length; i++) {
+            EN_PASSANT_FILES[i] = random.nextLong();
+        }
+
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    public static long piece(int piece, int index) {
+        return PIECES[piece * 64 + index];
+    }
+
+    public static long castlingRights(int castlingRights) {
+        return CASTLING_RIGHTS[castlingRights];
+    }
+
+    /**
+     * @param index en passant square index, or -1 when there is none
+     */
+    public static long enPassant(int index) {
+        return index == -1 ? 0L : EN_PASSANT_FILES[index % 8];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
@@ -0,0 +1,181 @@
+package jchess.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jchess.Board;
+import jchess.PackedMove;
+import jchess.engine.Search;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+import jchess.engine.TranspositionTable;
+import jchess.util.ProgressClock;
+import jchess.util.WorkerPool;
+
+/**
+ * Analyzes every position of a FEN or EPD file with a fixed depth or node
+ * search and writes one result line per position, in input order:
+ *
+ * <pre>
+ * fen TAB best move TAB score TAB depth TAB nodes
+ * </pre>
+ *
+ * for example {@code 8/5k2/8/3K4/8/8/4P3/8 w - - 0 60	e2e4	cp 154	5	73}.
+ * A position that fails to load is written as {@code fen TAB error message}.
+ *
+ * The input is streamed through a {@link MappedLineReader}. Positions are
+ * handed to a {@link WorkerPool}, whose workers each search on their own
+ * reused {@link Board} and transposition table, with at most a few
+ * positions per worker in flight, so memory use doesn't depend on the
+ * input size. The table is cleared before every position, so the results
+ * don't depend on the thread count or on which positions a worker
+ * analyzed before.
+ * Empty lines and lines starting with {@code #} are skipped.
+ */
+public final class BatchAnalyzer {
+
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private final int threads;
+    private final SearchLimits limits;
+    private final int hashMb;
+
+    public BatchAnalyzer(int threads, SearchLimits limits, int hashMb) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+        if (limits.depth() == 0 && limits.nodes() == 0) {
+            throw new IllegalArgumentException("Batch analysis needs a depth or node limit");
+        }
+
+        this.threads = threads;
+        this.limits = limits;
+        this.hashMb = hashMb;
+    }
+
+    /**
+     * @param progress receives a progress line about once a second, may be
+     * null
+     */
+    public BatchSummary run(Path input, Path output, PrintStream progress) throws IOException, InterruptedException {
+        final ProgressClock clock = new ProgressClock();
+        final WorkerPool<Worker, Analysis> pool = new WorkerPool<>(
+                threads, IN_FLIGHT_PER_THREAD, () -> new Worker(hashMb), Worker::close
+        );
+
+        long positions = 0;
+        long errors = 0;
+        long nodes = 0;
+
+        try (MappedLineReader reader = new MappedLineReader(input);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+
+            for (String line = reader.readLine(); line != null || !pool.isEmpty(); line = reader.readLine()) {
+                if (line != null) {
+                    final String position = line.strip();
+
+                    if (position.isEmpty() || position.startsWith("#")) {
+                        continue;
+                    }
+
+                    pool.submit(worker -> worker.analyze(position, limits));
+
+                    if (!pool.isFull()) {
+                        continue;
+                    }
+                }
+
+                // Results are written in submission order, waiting for the
+                // oldest position when the window of positions is full
+                final Analysis analysis = pool.take();
+
+                writer.write(analysis.line());
+                writer.newLine();
+
+                positions++;
+                nodes += analysis.nodes();
+                errors += analysis.error() ? 1 : 0;
+
+                if (progress != null && clock.isDue()) {
+                    progress.printf("%.1f%% %s%n",
+                            reader.getSize() == 0 ? 100.0 : 100.0 * reader.getPosition() / reader.getSize(),
+                            new BatchSummary(positions, errors, nodes, clock.getElapsedNanos()));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new BatchSummary(positions, errors, nodes, clock.getElapsedNanos());
+    }
+
+    /**
+     * Converts an EPD line, which has no move counters but may have
+     * operations after the position, to a FEN string
+     */
+    public static String toFen(String line) {
+        final String[] fields = line.split("\\s+");
+
+        if (fields.length >= 6 && isNumber(fields[4]) && isNumber(fields[5])) {
+            return String.join(" ", fields[0], fields[1], fields[2], fields[3], fields[4], fields[5]);
+        }
+        if (fields.length >= 4) {
+            return String.join(" ", fields[0], fields[1], fields[2], fields[3], "0", "1");
+        }
+
+        return line;
+    }
+
+    private static boolean isNumber(String field) {
+        return !field.isEmpty() && field.chars().allMatch(Character::isDigit);
+    }
+
+    private record Analysis(String line, long nodes, boolean error) {
+    }
+
+    /**
+     * Board and search state of one pool thread, reused for every position
+     * the thread analyzes
+     */
+    private static final class Worker {
+
+        private final Board board = new Board();
+        private final TranspositionTable table;
+        private final Search search;
+
+        Worker(int hashMb) {
+            table = new TranspositionTable(hashMb);
+            search = new Search(board, table);
+        }
+
+        Analysis analyze(String line, SearchLimits limits) {
+            final String fen = toFen(line);
+
+            try {
+                board.loadFen(fen);
+            } catch (IllegalArgumentException e) {
+                return new Analysis(fen + "\terror " + e.getMessage(), 0, true);
+            }
+
+            table.clear();
+
+            final SearchInfo result = search.search(limits, null);
+            final String bestMove = result.bestMove() == PackedMove.NONE
+                    ? "0000"
+                    : PackedMove.toString(result.bestMove());
+            final String analysis = String.join("\t",
+                    fen, bestMove, result.scoreToString(), Integer.toString(result.depth()), Long.toString(result.nodes())
+            );
+
+            return new Analysis(analysis, result.nodes(), false);
+        }
+
+        void close() {
+            table.close();
+        }
+    }
+}
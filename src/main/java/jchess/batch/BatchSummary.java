@@ -0,0 +1,26 @@
+package jchess.batch;
+
+/**
+ * Totals of a batch analysis run.
+ *
+ * @param positions positions analyzed, including ones that failed to load
+ * @param errors positions that failed to load
+ * @param nodes nodes searched over all positions
+ * @param nanos wall clock time of the run
+ */
+public record BatchSummary(long positions, long errors, long nodes, long nanos) {
+
+    public long positionsPerSecond() {
+        return nanos == 0 ? 0 : positions * 1_000_000_000L / nanos;
+    }
+
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d positions (%d errors), %d nodes in %d ms, %d positions/s, %d nps",
+                positions, errors, nodes, nanos / 1_000_000, positionsPerSecond(), nodesPerSecond());
+    }
+}
@@ -0,0 +1,87 @@
+package jchess.batch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of an ASCII file through a sliding memory-mapped window,
+ * so files of any size are streamed without being read onto the heap.
+ * Lines may end in {@code \n} or {@code \r\n} and may span windows.
+ */
+public final class MappedLineReader implements AutoCloseable {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+
+    private MappedByteBuffer window;
+    private long windowEnd = 0;
+
+    private byte[] line = new byte[128];
+
+    public MappedLineReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * @return the next line without its terminator, or null at the end of
+     * the file
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+
+        while (true) {
+            if (window == null || !window.hasRemaining()) {
+                if (windowEnd >= size) {
+                    return length > 0 ? decode(length) : null;
+                }
+
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, Math.min(WINDOW_SIZE, size - windowEnd));
+                windowEnd += window.limit();
+            }
+
+            final byte b = window.get();
+
+            if (b == '\n') {
+                return decode(length);
+            }
+
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+
+            line[length++] = b;
+        }
+    }
+
+    /**
+     * @return how far into the file reading has come, in bytes
+     */
+    public long getPosition() {
+        return window == null ? 0 : windowEnd - window.remaining();
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    private String decode(int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+
+        return new String(line, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,113 @@
+package jchess.batch;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jchess.Board;
+
+/**
+ * Reads a file of binary positions written by a {@link PositionFileWriter},
+ * in order or by index, straight from a memory mapping of the whole file.
+ * Positions are decoded into a board the caller reuses, so reading doesn't
+ * allocate, and the mapping is released on {@link #close()} rather than
+ * whenever the garbage collector gets to it.
+ *
+ * A {@link ByteBuffer} can't address more than 2 GB, so the mapping is
+ * viewed as a row of buffers of at most 1 GB each, none of them splitting
+ * a position.
+ */
+public final class PositionFileReader implements AutoCloseable {
+
+    private static final int POSITIONS_PER_CHUNK = (1 << 30) / Board.BINARY_SIZE;
+    private static final long CHUNK_BYTES = (long) POSITIONS_PER_CHUNK * Board.BINARY_SIZE;
+
+    private final Arena arena = Arena.ofShared();
+    private final ByteBuffer[] chunks;
+    private final long size;
+
+    private long next = 0;
+
+    public PositionFileReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long bytes = channel.size();
+
+            if (bytes % Board.BINARY_SIZE != 0) {
+                throw new IOException("Size of " + path + " isn't a multiple of " + Board.BINARY_SIZE + " bytes");
+            }
+
+            final MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes, arena);
+
+            size = bytes / Board.BINARY_SIZE;
+            chunks = new ByteBuffer[(int) ((size + POSITIONS_PER_CHUNK - 1) / POSITIONS_PER_CHUNK)];
+
+            for (int i = 0; i < chunks.length; i++) {
+                final long offset = (long) i * CHUNK_BYTES;
+                chunks[i] = file.asSlice(offset, Math.min(bytes - offset, CHUNK_BYTES)).asByteBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of positions in the file
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Loads the position with the given index into the board
+     *
+     * @throws IllegalArgumentException if the bytes don't hold a valid
+     * position
+     */
+    public void read(long index, Board board) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Position " + index + " out of " + size);
+        }
+
+        final ByteBuffer chunk = chunks[(int) (index / POSITIONS_PER_CHUNK)];
+
+        board.loadBinary(chunk, (int) (index % POSITIONS_PER_CHUNK) * Board.BINARY_SIZE);
+    }
+
+    /**
+     * Loads the position after the one last loaded by this method, starting
+     * with the one at {@link #seek(long)}
+     *
+     * @return false, leaving the board unchanged, if there are no more
+     * positions
+     */
+    public boolean next(Board board) {
+        if (next >= size) {
+            return false;
+        }
+
+        read(next++, board);
+
+        return true;
+    }
+
+    /**
+     * Makes {@link #next(Board)} continue at the given index
+     */
+    public void seek(long index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Position " + index + " out of " + size);
+        }
+
+        next = index;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
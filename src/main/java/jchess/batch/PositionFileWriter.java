@@ -0,0 +1,66 @@
+package jchess.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jchess.Board;
+
+/**
+ * Writes positions to a file in the fixed-size binary form of
+ * {@link Board#writeBinary}, one after another with nothing in between, to
+ * be read back by a {@link PositionFileReader}. An existing file is
+ * replaced.
+ */
+public final class PositionFileWriter implements AutoCloseable {
+
+    private static final int BUFFER_POSITIONS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_POSITIONS * Board.BINARY_SIZE);
+
+    private long count = 0;
+
+    public PositionFileWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public void write(Board board) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+
+        board.writeBinary(buffer, buffer.position());
+        buffer.position(buffer.position() + Board.BINARY_SIZE);
+        count++;
+    }
+
+    /**
+     * @return the number of positions written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package jchess.book;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.PackedMove;
+import jchess.Piece;
+
+/**
+ * Opening book in the Polyglot format: http://hgm.nubati.net/book_format.html
+ *
+ * A book is a file of 16-byte big-endian entries sorted by position key:
+ *
+ * <pre>
+ * bytes  0-7   Polyglot key of the position, see {@link PolyglotKeys}
+ * bytes  8-9   move: to square in bits 0-5, from square in bits 6-11,
+ *              promotion piece in bits 12-14
+ * bytes 10-11  weight
+ * bytes 12-15  learning data, unused
+ * </pre>
+ *
+ * The file is memory-mapped and binary searched in place, so opening even
+ * a large book is instant and costs no heap. A book isn't safe for use by
+ * several threads at once.
+ */
+public final class PolyglotBook implements AutoCloseable {
+
+    private static final int ENTRY_BYTES = 16;
+
+    private static final ValueLayout.OfLong KEY = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final PolyglotKeys keys;
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment entries;
+    private final long size;
+
+    private final MoveList moves = new MoveList();
+
+    /**
+     * Opens a book using the standard Polyglot keys
+     */
+    public PolyglotBook(Path path) throws IOException {
+        this(path, PolyglotKeys.standard());
+    }
+
+    public PolyglotBook(Path path, PolyglotKeys keys) throws IOException {
+        this.keys = keys;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long bytes = channel.size();
+
+            if (bytes % ENTRY_BYTES != 0) {
+                throw new IOException("Size of " + path + " isn't a multiple of " + ENTRY_BYTES + " bytes");
+            }
+
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes, arena);
+            size = bytes / ENTRY_BYTES;
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the legal book move with the highest weight, or
+     * {@link PackedMove#NONE} if the position isn't in the book
+     */
+    public int getBestMove(Board board) {
+        final long key = keys.key(board);
+        int bestMove = PackedMove.NONE;
+        int bestWeight = -1;
+
+        for (long i = findFirst(key); i < size && getKey(i) == key; i++) {
+            final int move = toLegalMove(board, getMove(i));
+
+            if (move != PackedMove.NONE && getWeight(i) > bestWeight) {
+                bestMove = move;
+                bestWeight = getWeight(i);
+            }
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * Picks a legal book move at random, each with a chance in proportion
+     * to its weight
+     *
+     * @return the move, or {@link PackedMove#NONE} if the position isn't in
+     * the book or all its moves have zero weight
+     */
+    public int getWeightedMove(Board board, RandomGenerator random) {
+        final long key = keys.key(board);
+        final long first = findFirst(key);
+        long totalWeight = 0;
+
+        for (long i = first; i < size && getKey(i) == key; i++) {
+            if (toLegalMove(board, getMove(i)) != PackedMove.NONE) {
+                totalWeight += getWeight(i);
+            }
+        }
+
+        if (totalWeight == 0) {
+            return PackedMove.NONE;
+        }
+
+        long choice = random.nextLong(totalWeight);
+
+        for (long i = first; ; i++) {
+            final int move = toLegalMove(board, getMove(i));
+
+            if (move == PackedMove.NONE) {
+                continue;
+            }
+
+            choice -= getWeight(i);
+
+            if (choice < 0) {
+                return move;
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first entry whose key isn't below the given
+     * one, comparing the keys unsigned as the book is sorted
+     */
+    private long findFirst(long key) {
+        long low = 0;
+        long high = size;
+
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+
+            if (Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Finds the legal move matching a book move, which encodes castling as
+     * the king capturing its own rook
+     *
+     * @return the move, or {@link PackedMove#NONE} if no legal move matches,
+     * e.g. when another position has the same key
+     */
+    private int toLegalMove(Board board, int bookMove) {
+        final int from = (bookMove >>> 6) & 0b111111;
+        final int to = bookMove & 0b111111;
+        final int promotion = (bookMove >>> 12) & 0b111;
+        final int promotionType = promotion == 0 ? Piece.NONE : Piece.KNIGHT + promotion - 1;
+
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+
+            if (PackedMove.getFrom(move) != from) {
+                continue;
+            }
+
+            final int target = switch (PackedMove.getFlags(move)) {
+                case PackedMove.KING_CASTLE ->
+                    from + 3;
+                case PackedMove.QUEEN_CASTLE ->
+                    from - 4;
+                default ->
+                    PackedMove.getTo(move);
+            };
+
+            if (target == to && PackedMove.getPromotionType(move) == promotionType) {
+                return move;
+            }
+        }
+
+        return PackedMove.NONE;
+    }
+
+    private long getKey(long index) {
+        return entries.get(KEY, index * ENTRY_BYTES);
+    }
+
+    private int getMove(long index) {
+        return entries.get(SHORT, index * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    private int getWeight(long index) {
+        return entries.get(SHORT, index * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,119 @@
+package jchess.book;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jchess.Board;
+import jchess.Piece;
+
+/**
+ * Position keys of the Polyglot book format:
+ * http://hgm.nubati.net/book_format.html
+ *
+ * Like the engine's own {@link jchess.Zobrist} keys, a Polyglot key is the
+ * XOR of random numbers for every piece on its square, the castling rights,
+ * the en passant file and the side to move, but the 781 numbers are fixed
+ * by the format, so the book is only found with the exact table Polyglot
+ * uses, see {@link #standard()}.
+ */
+public final class PolyglotKeys {
+
+    public static final int SIZE = 781;
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int WHITE_TO_MOVE_OFFSET = 780;
+
+    // Polyglot orders the piece kinds pawn, knight, bishop, rook, queen, king
+    private static final int[] KIND_BY_TYPE = new int[Piece.QUEEN + 1];
+
+    static {
+        KIND_BY_TYPE[Piece.PAWN] = 0;
+        KIND_BY_TYPE[Piece.KNIGHT] = 1;
+        KIND_BY_TYPE[Piece.BISHOP] = 2;
+        KIND_BY_TYPE[Piece.ROOK] = 3;
+        KIND_BY_TYPE[Piece.QUEEN] = 4;
+        KIND_BY_TYPE[Piece.KING] = 5;
+    }
+
+    private static final PolyglotKeys STANDARD = new PolyglotKeys(PolyglotRandom.RANDOM64);
+
+    private final long[] random;
+
+    public PolyglotKeys(long[] random) {
+        if (random.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " Polyglot keys but got " + random.length);
+        }
+
+        this.random = random.clone();
+    }
+
+    /**
+     * @return the keys of the format's own {@code Random64} table, which
+     * published books are keyed with
+     */
+    public static PolyglotKeys standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Reads a table of 781 big-endian 64-bit numbers from a file
+     */
+    public static PolyglotKeys load(Path path) throws IOException {
+        try (DataInputStream data = new DataInputStream(Files.newInputStream(path))) {
+            return read(data);
+        }
+    }
+
+    private static PolyglotKeys read(DataInputStream data) throws IOException {
+        final long[] random = new long[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            random[i] = data.readLong();
+        }
+
+        return new PolyglotKeys(random);
+    }
+
+    public long key(Board board) {
+        long key = 0;
+
+        for (long pieces = board.getColorBitBoard(Piece.WHITE) | board.getColorBitBoard(Piece.BLACK);
+             pieces != 0; pieces &= pieces - 1) {
+            final int index = Long.numberOfTrailingZeros(pieces);
+            final int piece = board.getPiece(index);
+            final int kind = KIND_BY_TYPE[Piece.getType(piece)] * 2 + (Piece.isWhite(piece) ? 1 : 0);
+
+            key ^= random[kind * 64 + index];
+        }
+
+        final int rights = board.getCastlingRights();
+
+        if ((rights & 0b0100) != 0) {
+            key ^= random[CASTLING_OFFSET];
+        }
+        if ((rights & 0b1000) != 0) {
+            key ^= random[CASTLING_OFFSET + 1];
+        }
+        if ((rights & 0b0001) != 0) {
+            key ^= random[CASTLING_OFFSET + 2];
+        }
+        if ((rights & 0b0010) != 0) {
+            key ^= random[CASTLING_OFFSET + 3];
+        }
+
+        // Polyglot only hashes the en passant file if the capture is
+        // possible, legal or not
+        if (board.canCaptureEnPassant()) {
+            key ^= random[EN_PASSANT_OFFSET + board.getEnPassantSquare() % 8];
+        }
+
+        if (Piece.isWhite(board.activeColor)) {
+            key ^= random[WHITE_TO_MOVE_OFFSET];
+        }
+
+        return key;
+    }
+}
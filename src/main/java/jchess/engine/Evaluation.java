@@ -0,0 +1,32 @@
+package jchess.engine;
+
+import jchess.Board;
+import jchess.Piece;
+
+/**
+ * Static evaluation of a position, in centipawns from the side to move's
+ * point of view. The piece values are the rough ones used to order and
+ * prune captures; the evaluation itself is {@link Board#evaluate()}.
+ */
+public class Evaluation {
+
+    public static final int PAWN_VALUE = 100;
+    public static final int KNIGHT_VALUE = 320;
+    public static final int BISHOP_VALUE = 330;
+    public static final int ROOK_VALUE = 500;
+    public static final int QUEEN_VALUE = 900;
+
+    // Indexed by piece type
+    private static final int[] PIECE_VALUES = {0, 0, PAWN_VALUE, KNIGHT_VALUE, BISHOP_VALUE, ROOK_VALUE, QUEEN_VALUE};
+
+    public static int evaluate(Board board) {
+        return board.evaluate();
+    }
+
+    /**
+     * @return the value of a piece type, 0 for the king and {@link Piece#NONE}
+     */
+    public static int pieceValue(int pieceType) {
+        return PIECE_VALUES[pieceType];
+    }
+}
@@ -0,0 +1,198 @@
+package jchess.engine;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.PackedMove;
+import jchess.Piece;
+
+/**
+ * Hands out the legal moves of a position one at a time, most promising
+ * first, generating each stage only when the previous one is used up:
+ * https://www.chessprogramming.org/Move_Ordering
+ *
+ * <ol>
+ * <li>the hash move</li>
+ * <li>captures and promotions, most valuable victim by least valuable
+ * attacker first</li>
+ * <li>the killer moves of the ply</li>
+ * <li>the other quiet moves, by history score</li>
+ * </ol>
+ *
+ * Most nodes that cut off do so on the hash move or a capture, and never
+ * generate their quiet moves. One picker is kept per ply and reused.
+ */
+final class MovePicker {
+
+    private static final int STAGE_HASH_MOVE = 0;
+    private static final int STAGE_GENERATE_NOISY = 1;
+    private static final int STAGE_NOISY = 2;
+    private static final int STAGE_FIRST_KILLER = 3;
+    private static final int STAGE_SECOND_KILLER = 4;
+    private static final int STAGE_GENERATE_QUIET = 5;
+    private static final int STAGE_QUIET = 6;
+    private static final int STAGE_DONE = 7;
+
+    private final MoveList moves = new MoveList();
+    private final int[] scores = new int[MoveList.CAPACITY];
+
+    private Board board;
+    private int[] history;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+
+    private int stage;
+    private int index;
+    private boolean noisyOnly;
+
+    /**
+     * Starts picking the moves of the board's current position
+     *
+     * @param history history scores of quiet moves, by {@link #historyIndex}
+     */
+    void init(Board board, int hashMove, int firstKiller, int secondKiller, int[] history) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.history = history;
+        this.stage = STAGE_HASH_MOVE;
+        this.noisyOnly = false;
+    }
+
+    /**
+     * Starts picking only the captures and promotions of the board's current
+     * position, for the quiescence search
+     */
+    void initNoisy(Board board) {
+        this.board = board;
+        this.hashMove = PackedMove.NONE;
+        this.stage = STAGE_GENERATE_NOISY;
+        this.noisyOnly = true;
+    }
+
+    static int historyIndex(int color, int move) {
+        return (Piece.isWhite(color) ? 0 : 4096) + (move & 0xFFF);
+    }
+
+    /**
+     * @return the next move, or {@link PackedMove#NONE} when all legal moves
+     * have been picked
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH_MOVE -> {
+                    stage = STAGE_GENERATE_NOISY;
+
+                    if (hashMove != PackedMove.NONE && board.isLegalMove(hashMove)) {
+                        return hashMove;
+                    }
+                }
+                case STAGE_GENERATE_NOISY -> {
+                    board.generateNoisyMoves(moves);
+                    scoreNoisyMoves();
+                    index = 0;
+                    stage = STAGE_NOISY;
+                }
+                case STAGE_NOISY -> {
+                    final int move = pickBest();
+
+                    if (move != PackedMove.NONE) {
+                        return move;
+                    }
+
+                    stage = noisyOnly ? STAGE_DONE : STAGE_FIRST_KILLER;
+                }
+                case STAGE_FIRST_KILLER -> {
+                    stage = STAGE_SECOND_KILLER;
+
+                    if (isUsableKiller(firstKiller)) {
+                        return firstKiller;
+                    }
+                }
+                case STAGE_SECOND_KILLER -> {
+                    stage = STAGE_GENERATE_QUIET;
+
+                    if (secondKiller != firstKiller && isUsableKiller(secondKiller)) {
+                        return secondKiller;
+                    }
+                }
+                case STAGE_GENERATE_QUIET -> {
+                    board.generateQuietMoves(moves);
+                    scoreQuietMoves();
+                    index = 0;
+                    stage = STAGE_QUIET;
+                }
+                case STAGE_QUIET -> {
+                    final int move = pickBest();
+
+                    if (move != PackedMove.NONE) {
+                        return move;
+                    }
+
+                    stage = STAGE_DONE;
+                }
+                default -> {
+                    return PackedMove.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Killers are quiet moves that cut off in a sibling position, so they
+     * have to be checked against this one
+     */
+    private boolean isUsableKiller(int killer) {
+        return killer != PackedMove.NONE && killer != hashMove && board.isLegalMove(killer);
+    }
+
+    private void scoreNoisyMoves() {
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final int attacker = Piece.getType(board.getPiece(PackedMove.getFrom(move)));
+            final int victim = PackedMove.isEnPassant(move)
+                    ? Piece.PAWN
+                    : Piece.getType(board.getPiece(PackedMove.getTo(move)));
+
+            // Piece types are ordered by value, apart from the king which
+            // can only capture undefended pieces anyway
+            scores[i] = Evaluation.pieceValue(victim) * 8 - attacker
+                    + Evaluation.pieceValue(PackedMove.getPromotionType(move));
+        }
+    }
+
+    private void scoreQuietMoves() {
+        for (int i = 0; i < moves.size(); i++) {
+            scores[i] = history[historyIndex(board.activeColor, moves.get(i))];
+        }
+    }
+
+    /**
+     * Selection sort, one step per call: most nodes only look at the first
+     * few moves, so sorting the whole list up front is wasted work
+     */
+    private int pickBest() {
+        while (index < moves.size()) {
+            int best = index;
+
+            for (int i = index + 1; i < moves.size(); i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+
+            final int move = moves.get(best);
+            moves.swap(index, best);
+            scores[best] = scores[index];
+            index++;
+
+            if (move != hashMove && (stage != STAGE_QUIET || (move != firstKiller && move != secondKiller))) {
+                return move;
+            }
+        }
+
+        return PackedMove.NONE;
+    }
+}
@@ -0,0 +1,140 @@
+package jchess.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import jchess.Board;
+
+/**
+ * Lazy SMP: https://www.chessprogramming.org/Lazy_SMP
+ *
+ * The main {@link Search} runs on the caller's thread while helper threads
+ * search copies of the same position. The threads only cooperate through
+ * the shared transposition table: helpers fill it with results the main
+ * search then finds as cutoffs and hash moves. Every other helper starts
+ * one ply deeper, so the threads don't all search the same depth at the
+ * same time. When the main search is done the helpers are stopped, and the
+ * deepest completed iteration of any thread is played.
+ */
+public final class ParallelSearch {
+
+    private final TranspositionTable table;
+    private final int threads;
+
+    private volatile Search[] searches = new Search[0];
+
+    public ParallelSearch(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+
+        this.table = table;
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return nodes searched by all threads, for a running search an
+     * estimate since the helpers' counters are read without synchronization
+     */
+    public long getNodes() {
+        long nodes = 0;
+
+        for (Search search : searches) {
+            nodes += search.getNodes();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Searches the board's position like {@link Search#search}. Iterations
+     * reported to the listener are the main thread's, with the node count of
+     * all threads.
+     */
+    public SearchInfo search(Board board, SearchLimits limits, Consumer<SearchInfo> listener) {
+        return search(board, limits, listener, new AtomicBoolean());
+    }
+
+    /**
+     * Like {@link #search(Board, SearchLimits, Consumer)}, stopped by setting
+     * the flag, see {@link Search#search(SearchLimits, Consumer, AtomicBoolean)}
+     */
+    public SearchInfo search(Board board, SearchLimits limits, Consumer<SearchInfo> listener, AtomicBoolean stop) {
+        final Search[] searches = new Search[threads];
+        final SearchInfo[] results = new SearchInfo[threads];
+        final Thread[] helpers = new Thread[threads - 1];
+
+        searches[0] = new Search(board, table);
+
+        for (int i = 1; i < threads; i++) {
+            searches[i] = new Search(new Board(board), table);
+        }
+
+        this.searches = searches;
+        table.newSearch();
+
+        for (int i = 1; i < threads; i++) {
+            final int id = i;
+            // Helpers also check the caller's stop flag, and are interrupted
+            // once the main search is done without setting it
+            helpers[i - 1] = new Thread(
+                    () -> results[id] = searches[id].search(limits, null, stop, 1 + (id & 1)),
+                    "search-helper-" + id
+            );
+            helpers[i - 1].start();
+        }
+
+        try {
+            results[0] = searches[0].search(limits, info -> {
+                if (listener != null) {
+                    listener.accept(withNodes(info, getNodes()));
+                }
+            }, stop, 1);
+        } finally {
+            for (Thread helper : helpers) {
+                helper.interrupt();
+            }
+
+            for (Thread helper : helpers) {
+                joinUninterruptibly(helper);
+            }
+        }
+
+        SearchInfo best = results[0];
+
+        for (int i = 1; i < threads; i++) {
+            if (results[i] != null && results[i].depth() > best.depth()) {
+                best = results[i];
+            }
+        }
+
+        return withNodes(best, getNodes());
+    }
+
+    private static SearchInfo withNodes(SearchInfo info, long nodes) {
+        return new SearchInfo(
+                info.depth(), info.score(), nodes, info.nanos(), info.hashfull(), info.principalVariation()
+        );
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
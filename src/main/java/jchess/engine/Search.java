@@ -0,0 +1,423 @@
+package jchess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import jchess.Board;
+import jchess.PackedMove;
+import jchess.Piece;
+
+/**
+ * Negamax alpha-beta search with iterative deepening:
+ * https://www.chessprogramming.org/Alpha-Beta
+ *
+ * Each iteration searches one ply deeper, starting from the best move of the
+ * previous one, and is reported to the listener when it completes. The
+ * search runs on the caller's thread and can be stopped from any other
+ * thread through a stop flag or by interrupting the searching thread; an
+ * interrupted iteration is discarded.
+ *
+ * Results are shared between iterations, and between searches, through an
+ * optional {@link TranspositionTable}.
+ */
+public final class Search {
+
+    public static final int MAX_PLY = 128;
+
+    public static final int INFINITY = 32500;
+    public static final int MATE_SCORE = 32000;
+    public static final int DRAW_SCORE = 0;
+
+    private static final int NODES_BETWEEN_CHECKS = 2048;
+    private static final int MAX_HISTORY = 1 << 20;
+
+    // Positional swing a capture may add on top of the captured material
+    private static final int DELTA_MARGIN = 200;
+
+    private final Board board;
+    private final TranspositionTable table;
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY];
+
+    // Quiet moves that caused cutoffs, two per ply and by color and squares
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[] history = new int[2 * 64 * 64];
+
+    // Triangular principal variation table, one line per ply
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    private SearchLimits limits;
+    private AtomicBoolean stop;
+    private long startTime;
+    private long nodes;
+    private boolean stopped;
+    private boolean canStop;
+
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    public Search(Board board) {
+        this(board, null);
+    }
+
+    public Search(Board board, TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+
+        for (int i = 0; i < movePickers.length; i++) {
+            movePickers[i] = new MovePicker();
+        }
+    }
+
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE_SCORE - MAX_PLY;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the share of beta cutoffs caused by the first move searched,
+     * a measure of move ordering quality
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Searches the board's position until one of the limits is reached or
+     * the search is stopped. The board is back in its original position when
+     * this returns.
+     *
+     * @param listener called with the result of every completed iteration
+     * @return the result of the deepest completed iteration. The one ply
+     * iteration always completes, so there is a move to play.
+     */
+    public SearchInfo search(SearchLimits limits, Consumer<SearchInfo> listener) {
+        return search(limits, listener, new AtomicBoolean());
+    }
+
+    /**
+     * Like {@link #search(SearchLimits, Consumer)}, but can be stopped from
+     * any other thread by setting the flag. The flag is only read, so a stop
+     * requested before the search starts isn't lost; the search then returns
+     * after its first iteration.
+     */
+    public SearchInfo search(SearchLimits limits, Consumer<SearchInfo> listener, AtomicBoolean stop) {
+        if (table != null) {
+            table.newSearch();
+        }
+
+        return search(limits, listener, stop, 1);
+    }
+
+    /**
+     * Like {@link #search(SearchLimits, Consumer, AtomicBoolean)}, but starts
+     * iterating at the given depth and leaves the table's age alone, so
+     * several searches can share the table (see {@link ParallelSearch})
+     */
+    SearchInfo search(SearchLimits limits, Consumer<SearchInfo> listener, AtomicBoolean stop, int firstDepth) {
+        this.limits = limits;
+        this.stop = stop;
+        this.startTime = System.nanoTime();
+        this.nodes = 0;
+        this.stopped = false;
+        this.canStop = false;
+        this.cutoffs = 0;
+        this.firstMoveCutoffs = 0;
+
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+        Arrays.fill(history, 0);
+
+        final int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+        SearchInfo result = null;
+
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            final int score = search(depth, 0, -INFINITY, INFINITY);
+
+            if (stopped) {
+                break;
+            }
+
+            result = new SearchInfo(
+                    depth, score, nodes, System.nanoTime() - startTime,
+                    table != null ? table.hashfull() : 0,
+                    Arrays.copyOf(pvTable[0], pvLength[0])
+            );
+
+            if (listener != null) {
+                listener.accept(result);
+            }
+
+            // The first iteration always completes so there is a move to play
+            canStop = true;
+
+            if (isMateScore(score) || isSoftTimeLimitReached()) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+
+        if (shouldStop()) {
+            return 0;
+        }
+
+        if (ply > 0 && (board.isRepetition() || board.getHalfMoveCounter() >= 100)) {
+            return DRAW_SCORE;
+        }
+
+        if (depth == 0 || ply == MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        nodes++;
+
+        int hashMove = PackedMove.NONE;
+
+        if (table != null) {
+            final long entry = table.probe(board.hash());
+
+            if (entry != 0) {
+                hashMove = TranspositionTable.getMove(entry);
+
+                if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+                    final int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+                    final int bound = TranspositionTable.getBound(entry);
+
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        // At the root the previous iteration's best move is known for sure,
+        // the table entry may have been replaced
+        final MovePicker picker = movePickers[ply];
+        picker.init(board, ply == 0 ? pvTable[0][0] : hashMove, killers[ply][0], killers[ply][1], history);
+
+        final int originalAlpha = alpha;
+        int bestMove = PackedMove.NONE;
+        int movesSearched = 0;
+
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            board.makeMove(move);
+
+            final int score = -search(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            movesSearched++;
+
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+
+                if (alpha >= beta) {
+                    onCutoff(move, depth, ply, movesSearched);
+                    break;
+                }
+            }
+        }
+
+        if (movesSearched == 0) {
+            return board.isKingInCheck(board.activeColor) ? -MATE_SCORE + ply : DRAW_SCORE;
+        }
+
+        if (table != null) {
+            final int bound = alpha >= beta ? TranspositionTable.BOUND_LOWER
+                    : alpha > originalAlpha ? TranspositionTable.BOUND_EXACT
+                    : TranspositionTable.BOUND_UPPER;
+
+            table.store(board.hash(), bestMove, toTableScore(alpha, ply), depth, bound);
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Quiescence search: https://www.chessprogramming.org/Quiescence_Search
+     *
+     * Searches captures and promotions until the position is quiet, so
+     * leaves aren't evaluated in the middle of an exchange. The side to move
+     * may stand pat on the static evaluation instead of capturing, unless it
+     * is in check, in which case every evasion is searched. Captures that
+     * can't raise alpha even with a margin on top of the captured piece, or
+     * that lose material by static exchange, are skipped.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+
+        if (shouldStop()) {
+            return 0;
+        }
+
+        nodes++;
+
+        final boolean inCheck = board.isKingInCheck(board.activeColor);
+        final int standPat = Evaluation.evaluate(board);
+
+        if (ply == MAX_PLY - 1) {
+            return standPat;
+        }
+
+        final MovePicker picker = movePickers[ply];
+
+        if (inCheck) {
+            picker.init(board, PackedMove.NONE, PackedMove.NONE, PackedMove.NONE, history);
+        } else {
+            if (standPat >= beta) {
+                return standPat;
+            }
+
+            alpha = Math.max(alpha, standPat);
+            picker.initNoisy(board);
+        }
+
+        int movesSearched = 0;
+
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            movesSearched++;
+
+            if (!inCheck) {
+                final int captured = PackedMove.isEnPassant(move)
+                        ? Piece.PAWN
+                        : Piece.getType(board.getPiece(PackedMove.getTo(move)));
+                final int optimisticScore = standPat + Evaluation.pieceValue(captured) + DELTA_MARGIN;
+
+                if (optimisticScore <= alpha && !PackedMove.isPromotion(move)) {
+                    continue;
+                }
+
+                if (board.staticExchange(move) < 0) {
+                    continue;
+                }
+            }
+
+            board.makeMove(move);
+            final int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+
+        if (inCheck && movesSearched == 0) {
+            return -MATE_SCORE + ply;
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Mate scores count plies from the root, but the table is shared between
+     * nodes at different plies, so it stores them counted from the node
+     */
+    private static int toTableScore(int score, int ply) {
+        if (isMateScore(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (isMateScore(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+
+        return score;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pvTable[ply][ply] = move;
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    /**
+     * Remembers a quiet move that caused a cutoff as a killer of the ply, and
+     * raises its history score more the deeper the subtree it cut off
+     */
+    private void onCutoff(int move, int depth, int ply, int movesSearched) {
+        cutoffs++;
+
+        if (movesSearched == 1) {
+            firstMoveCutoffs++;
+        }
+
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+            return;
+        }
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        final int index = MovePicker.historyIndex(board.activeColor, move);
+        history[index] += depth * depth;
+
+        // Keep the scores in range while preserving their order
+        if (history[index] > MAX_HISTORY) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    private boolean shouldStop() {
+        if (stopped) {
+            return true;
+        }
+
+        if (!canStop) {
+            return false;
+        }
+
+        if (stop.get() || (limits.nodes() > 0 && nodes >= limits.nodes())) {
+            stopped = true;
+        } else if ((nodes % NODES_BETWEEN_CHECKS) == 0
+                && (isHardTimeLimitReached() || Thread.currentThread().isInterrupted())) {
+            stopped = true;
+        }
+
+        return stopped;
+    }
+
+    private boolean isHardTimeLimitReached() {
+        return limits.timeMillis() > 0 && System.nanoTime() - startTime >= limits.timeMillis() * 1_000_000L;
+    }
+
+    /**
+     * Another iteration would take several times as long as all previous
+     * ones together, so don't start one after half the time is used
+     */
+    private boolean isSoftTimeLimitReached() {
+        return limits.timeMillis() > 0 && System.nanoTime() - startTime >= limits.timeMillis() * 500_000L;
+    }
+}
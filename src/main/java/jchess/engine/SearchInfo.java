@@ -0,0 +1,66 @@
+package jchess.engine;
+
+import jchess.PackedMove;
+
+/**
+ * Result of one completed iteration of a search.
+ *
+ * @param depth depth of the iteration in plies
+ * @param score score from the side to move's point of view, in centipawns
+ * or as a mate score (see {@link Search#isMateScore})
+ * @param nodes nodes searched since the search started
+ * @param nanos time since the search started
+ * @param hashfull how full the transposition table is, in permille
+ * @param principalVariation expected line of play, as packed moves
+ */
+public record SearchInfo(int depth, int score, long nodes, long nanos, int hashfull, int[] principalVariation) {
+
+    /**
+     * @return the first move of the principal variation, or
+     * {@link PackedMove#NONE} if there are no legal moves
+     */
+    public int bestMove() {
+        return principalVariation.length > 0 ? principalVariation[0] : PackedMove.NONE;
+    }
+
+    /**
+     * Formats the score like UCI does, in centipawns ({@code cp 35}) or as
+     * moves to mate ({@code mate -2} when getting mated)
+     */
+    public String scoreToString() {
+        if (Search.isMateScore(score)) {
+            final int plies = Search.MATE_SCORE - Math.abs(score);
+            return "mate " + (score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        }
+
+        return "cp " + score;
+    }
+
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * Formats the iteration like a UCI info line, e.g.
+     * {@code depth 6 score cp 35 nodes 41021 nps 820420 hashfull 12 time 50 pv e2e4 e7e5}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+
+        result.append("depth ").append(depth);
+
+        result.append(" score ").append(scoreToString());
+        result.append(" nodes ").append(nodes);
+        result.append(" nps ").append(nodesPerSecond());
+        result.append(" hashfull ").append(hashfull);
+        result.append(" time ").append(nanos / 1_000_000);
+        result.append(" pv");
+
+        for (int move : principalVariation) {
+            result.append(' ').append(PackedMove.toString(move));
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package jchess.engine;
+
+/**
+ * When a search should stop. A limit of 0 means no limit; a search without
+ * any limit runs until it is stopped.
+ *
+ * @param depth maximum iterative deepening depth in plies
+ * @param timeMillis maximum time to search
+ * @param nodes maximum number of nodes to search
+ */
+public record SearchLimits(int depth, long timeMillis, long nodes) {
+
+    // Time kept back for the GUI's and the operating system's overhead
+    private static final long MOVE_OVERHEAD_MILLIS = 30;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    public static SearchLimits infinite() {
+        return new SearchLimits(0, 0, 0);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, timeMillis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, 0, nodes);
+    }
+
+    /**
+     * Budgets the time for one move from a clock: an even share of the
+     * remaining time over the moves to go plus most of the increment, less
+     * a margin for overhead
+     *
+     * @param movesToGo moves until the next time control, 0 if unknown
+     * @return the time to search, at least 1 ms
+     */
+    public static long moveTime(long remainingMillis, long incrementMillis, long movesToGo) {
+        final long share = remainingMillis / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + incrementMillis * 3 / 4;
+        return Math.max(1, Math.min(share, remainingMillis - MOVE_OVERHEAD_MILLIS));
+    }
+}
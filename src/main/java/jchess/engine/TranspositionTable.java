@@ -0,0 +1,171 @@
+package jchess.engine;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Fixed-size hash table of search results, allocated off-heap so large
+ * tables don't weigh on the garbage collector:
+ * https://www.chessprogramming.org/Transposition_Table
+ *
+ * Every entry is 16 bytes: the position key XOR the data word, followed by
+ * the data word itself. Threads read and write entries without locking; a
+ * reader recomputes key XOR data and only accepts the entry if it matches
+ * its own key, so an entry torn by a concurrent write is treated as a miss
+ * (https://www.chessprogramming.org/Shared_Hash_Table#Lockless).
+ *
+ * Data word layout:
+ *
+ * <pre>
+ * bits  0-15  best move
+ * bits 16-31  score
+ * bits 32-39  depth
+ * bits 40-41  bound
+ * bits 42-47  age of the search that stored it
+ * </pre>
+ */
+public final class TranspositionTable implements AutoCloseable {
+
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int AGE_MASK = 0b111111;
+    private static final int HASHFULL_SAMPLE = 1000;
+
+    private Arena arena;
+    private MemorySegment entries;
+    private long mask;
+    private int age = 0;
+
+    public TranspositionTable(int sizeMb) {
+        resize(sizeMb);
+    }
+
+    /**
+     * Reallocates the table with room for as many entries as fit in the
+     * given size, rounded down to a power of two. The old contents are lost
+     * and their memory is released, so no search may be using the table.
+     */
+    public void resize(int sizeMb) {
+        if (sizeMb < 1) {
+            throw new IllegalArgumentException("Invalid transposition table size: " + sizeMb + " MB");
+        }
+
+        final long count = Long.highestOneBit((long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+
+        final Arena oldArena = arena;
+
+        arena = Arena.ofShared();
+        entries = arena.allocate(count * ENTRY_BYTES, 64);
+        mask = count - 1;
+
+        if (oldArena != null) {
+            oldArena.close();
+        }
+    }
+
+    public void clear() {
+        entries.fill((byte) 0);
+        age = 0;
+    }
+
+    /**
+     * Starts a new search, so entries stored by earlier searches are the
+     * first to be replaced
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * @return the data word stored for the key, or 0 if there is none
+     */
+    public long probe(long key) {
+        final long offset = (key & mask) * ENTRY_BYTES;
+        final long checkedKey = entries.get(ValueLayout.JAVA_LONG, offset);
+        final long data = entries.get(ValueLayout.JAVA_LONG, offset + 8);
+
+        return (checkedKey ^ data) == key ? data : 0L;
+    }
+
+    /**
+     * Stores a search result. An entry for another position is only replaced
+     * by a search at least as deep, unless it was stored by an earlier
+     * search.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        final long offset = (key & mask) * ENTRY_BYTES;
+        final long oldData = entries.get(ValueLayout.JAVA_LONG, offset + 8);
+        final boolean sameKey = (entries.get(ValueLayout.JAVA_LONG, offset) ^ oldData) == key;
+
+        if (!sameKey && oldData != 0 && getAge(oldData) == age && getDepth(oldData) > depth) {
+            return;
+        }
+
+        // Keep the old best move when a shallower bound doesn't know one
+        if (sameKey && move == 0) {
+            move = getMove(oldData);
+        }
+
+        final long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) age << 42);
+
+        entries.set(ValueLayout.JAVA_LONG, offset, key ^ data);
+        entries.set(ValueLayout.JAVA_LONG, offset + 8, data);
+    }
+
+    /**
+     * @return how full the table is in permille, estimated from the share of
+     * the first thousand entries stored by the current search
+     */
+    public int hashfull() {
+        final long sample = Math.min(HASHFULL_SAMPLE, mask + 1);
+        int used = 0;
+
+        for (long i = 0; i < sample; i++) {
+            final long data = entries.get(ValueLayout.JAVA_LONG, i * ENTRY_BYTES + 8);
+
+            if (data != 0 && getAge(data) == age) {
+                used++;
+            }
+        }
+
+        return (int) (used * 1000 / sample);
+    }
+
+    public long getSizeBytes() {
+        return entries.byteSize();
+    }
+
+    public static int getMove(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int getScore(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int getDepth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    public static int getBound(long data) {
+        return (int) (data >>> 40) & 0b11;
+    }
+
+    private static int getAge(long data) {
+        return (int) (data >>> 42) & AGE_MASK;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
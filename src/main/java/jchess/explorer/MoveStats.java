@@ -0,0 +1,13 @@
+package jchess.explorer;
+
+/**
+ * How often a move was played from a position, by the result of the games.
+ *
+ * @param move the move, see {@link jchess.PackedMove}
+ */
+public record MoveStats(int move, long whiteWins, long blackWins, long draws, long unfinished) {
+
+    public long games() {
+        return whiteWins + blackWins + draws + unfinished;
+    }
+}
@@ -0,0 +1,312 @@
+package jchess.explorer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.PackedMove;
+import jchess.Zobrist;
+
+/**
+ * Counts how often each move was played from each position, and how the
+ * games went on, for an opening explorer.
+ *
+ * The counts live in an open-addressing hash table with linear probing in
+ * a single {@code long[]}, four longs per entry:
+ *
+ * <pre>
+ * long 0  key of the position, see {@link #key(Board)}
+ * long 1  the move, 0 for an empty entry
+ * long 2  white wins in bits 32-63, black wins in bits 0-31
+ * long 3  draws in bits 32-63, unfinished games in bits 0-31
+ * </pre>
+ *
+ * The table is kept at most half full, so a lookup of all moves of a
+ * position costs one short probe per legal move.
+ *
+ * {@link #write(Path)} flushes the table through a mapping of the file, and
+ * {@link #open(Path)} maps such a file read-only and probes it in place, so
+ * opening an index of any size is instant and costs no heap. An index isn't
+ * safe for use by several threads at once.
+ */
+public final class PositionIndex implements AutoCloseable {
+
+    public static final int WHITE_WINS = 0;
+    public static final int BLACK_WINS = 1;
+    public static final int DRAWS = 2;
+    public static final int UNFINISHED = 3;
+
+    private static final int STRIDE = 4;
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 28;
+    private static final int HEADER_BYTES = Long.BYTES;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment mapped;
+    private final MoveList moves = new MoveList();
+
+    private long[] table;
+    private int capacity;
+    private long size;
+
+    public PositionIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of entries to reserve room for
+     */
+    public PositionIndex(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(capacity * 2 - 1) * 2);
+        this.table = new long[this.capacity * STRIDE];
+        this.arena = null;
+        this.mapped = null;
+    }
+
+    private PositionIndex(Arena arena, MemorySegment mapped, int capacity, long size) {
+        this.arena = arena;
+        this.mapped = mapped;
+        this.capacity = capacity;
+        this.size = size;
+    }
+
+    /**
+     * Maps an index written by {@link #write(Path)} read-only
+     */
+    public static PositionIndex open(Path path) throws IOException {
+        final Arena arena = Arena.ofShared();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long entries = (channel.size() - HEADER_BYTES) / (STRIDE * Long.BYTES);
+
+            if (channel.size() != HEADER_BYTES + entries * STRIDE * Long.BYTES
+                    || entries < MIN_CAPACITY || entries > MAX_CAPACITY || Long.bitCount(entries) != 1) {
+                throw new IOException("Size of " + path + " doesn't match a position index");
+            }
+
+            final MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+
+            return new PositionIndex(arena, mapped, (int) entries, mapped.get(LONG, 0));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of distinct position and move pairs
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Counts a move played from a position
+     *
+     * @param key the position's {@link #key(Board)}
+     * @param result {@link #WHITE_WINS}, {@link #BLACK_WINS}, {@link #DRAWS}
+     * or {@link #UNFINISHED}
+     */
+    public void add(long key, int move, int result) {
+        final int entry = findOrInsert(key, move);
+        table[entry + 2 + (result >>> 1)] += (result & 1) == 0 ? 1L << 32 : 1L;
+    }
+
+    /**
+     * Adds all counts of another index to this one
+     */
+    public void addAll(PositionIndex other) {
+        for (int i = 0; i < other.capacity * STRIDE; i += STRIDE) {
+            final long move = other.get(i + 1);
+
+            if (move != PackedMove.NONE) {
+                final int entry = findOrInsert(other.get(i), (int) move);
+
+                table[entry + 2] += other.get(i + 2);
+                table[entry + 3] += other.get(i + 3);
+            }
+        }
+    }
+
+    /**
+     * @return the counts of a move played from a position, or null if it
+     * never was
+     */
+    public MoveStats get(long key, int move) {
+        final int entry = find(key, move);
+
+        if (entry < 0) {
+            return null;
+        }
+
+        final long wins = get(entry + 2);
+        final long draws = get(entry + 3);
+
+        return new MoveStats(move, wins >>> 32, wins & 0xFFFFFFFFL, draws >>> 32, draws & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Looks up every legal move of a position
+     *
+     * @return the moves played from the position, most played first
+     */
+    public List<MoveStats> lookup(Board board) {
+        final List<MoveStats> result = new ArrayList<>();
+
+        final long key = key(board);
+
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final MoveStats stats = get(key, moves.get(i));
+
+            if (stats != null) {
+                result.add(stats);
+            }
+        }
+
+        result.sort(Comparator.comparingLong(MoveStats::games).reversed());
+
+        return result;
+    }
+
+    /**
+     * The board's Zobrist key, leaving out the en passant file unless
+     * {@link Board#canCaptureEnPassant()}, so the positions of transposing
+     * move orders share their entries
+     */
+    public static long key(Board board) {
+        if (board.getEnPassantSquare() == -1 || board.canCaptureEnPassant()) {
+            return board.hash();
+        }
+
+        return board.hash() ^ Zobrist.enPassant(board.getEnPassantSquare());
+    }
+
+    /**
+     * Writes the index through a mapping of the file, little-endian, with
+     * the entry count in front of the table
+     */
+    public void write(Path path) throws IOException {
+        final long bytes = HEADER_BYTES + (long) capacity * STRIDE * Long.BYTES;
+
+        try (Arena writeArena = Arena.ofConfined();
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final MemorySegment file = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes, writeArena);
+
+            file.set(LONG, 0, size);
+
+            if (mapped != null) {
+                MemorySegment.copy(mapped, HEADER_BYTES, file, HEADER_BYTES, bytes - HEADER_BYTES);
+            } else {
+                MemorySegment.copy(table, 0, file, LONG, HEADER_BYTES, table.length);
+            }
+
+            file.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (arena != null) {
+            arena.close();
+        }
+    }
+
+    /**
+     * @return the offset of the entry, or -1
+     */
+    private int find(long hash, int move) {
+        final int mask = capacity - 1;
+
+        for (int slot = slot(hash, move, mask); ; slot = (slot + 1) & mask) {
+            final int entry = slot * STRIDE;
+            final long entryMove = get(entry + 1);
+
+            if (entryMove == PackedMove.NONE) {
+                return -1;
+            }
+            if (entryMove == move && get(entry) == hash) {
+                return entry;
+            }
+        }
+    }
+
+    private int findOrInsert(long hash, int move) {
+        if (table == null) {
+            throw new IllegalStateException("Index is read-only");
+        }
+        if (size * 2 >= capacity) {
+            grow();
+        }
+
+        final int mask = capacity - 1;
+
+        for (int slot = slot(hash, move, mask); ; slot = (slot + 1) & mask) {
+            final int entry = slot * STRIDE;
+
+            if (table[entry + 1] == PackedMove.NONE) {
+                table[entry] = hash;
+                table[entry + 1] = move;
+                size++;
+
+                return entry;
+            }
+            if (table[entry + 1] == move && table[entry] == hash) {
+                return entry;
+            }
+        }
+    }
+
+    private void grow() {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("Index is full at " + size + " entries");
+        }
+
+        final long[] old = table;
+        final int mask = capacity * 2 - 1;
+
+        capacity *= 2;
+        table = new long[capacity * STRIDE];
+
+        for (int i = 0; i < old.length; i += STRIDE) {
+            if (old[i + 1] == PackedMove.NONE) {
+                continue;
+            }
+
+            int slot = slot(old[i], (int) old[i + 1], mask);
+
+            while (table[slot * STRIDE + 1] != PackedMove.NONE) {
+                slot = (slot + 1) & mask;
+            }
+
+            System.arraycopy(old, i, table, slot * STRIDE, STRIDE);
+        }
+    }
+
+    private long get(int index) {
+        return table != null ? table[index] : mapped.getAtIndex(LONG, 1 + index);
+    }
+
+    private static int slot(long hash, int move, int mask) {
+        final long key = (hash ^ move * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (key >>> 32) & mask;
+    }
+}
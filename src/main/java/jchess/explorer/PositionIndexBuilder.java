@@ -0,0 +1,106 @@
+package jchess.explorer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import jchess.Board;
+import jchess.Piece;
+import jchess.pgn.GameListener;
+import jchess.pgn.PgnError;
+import jchess.pgn.PgnGame;
+import jchess.pgn.PgnReader;
+import jchess.pgn.PgnReplayer;
+import jchess.pgn.PgnSummary;
+
+/**
+ * Builds a {@link PositionIndex} from the games of a PGN stream.
+ *
+ * The games are replayed by a {@link PgnReplayer}, and each of its threads
+ * counts into an index of its own, so the threads never contend; the
+ * indexes are merged once all games are read.
+ */
+public final class PositionIndexBuilder implements GameListener {
+
+    private final int maxPly;
+    private final List<PositionIndex> indexes = new ArrayList<>();
+    private final ThreadLocal<PositionIndex> index = ThreadLocal.withInitial(this::newIndex);
+
+    private PgnSummary summary;
+
+    /**
+     * @param maxPly only moves up to this ply of the game, counted from
+     * the standard starting position, are indexed
+     */
+    public PositionIndexBuilder(int maxPly) {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("Invalid ply limit: " + maxPly);
+        }
+
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Indexes every accepted game of a PGN stream
+     *
+     * @param errors receives rejected games, may be null
+     * @param progress receives a progress line about once a second, may be
+     * null
+     * @return the merged index
+     */
+    public PositionIndex build(PgnReader reader, int threads, Consumer<PgnError> errors, PrintStream progress)
+            throws IOException, InterruptedException {
+        summary = new PgnReplayer(threads).run(reader, this, errors, progress);
+
+        final PositionIndex merged = indexes.stream()
+                .max((a, b) -> Long.compare(a.size(), b.size()))
+                .orElseGet(PositionIndex::new);
+
+        for (PositionIndex other : indexes) {
+            if (other != merged) {
+                merged.addAll(other);
+            }
+        }
+
+        indexes.clear();
+
+        return merged;
+    }
+
+    /**
+     * @return the totals of the last {@link #build} run
+     */
+    public PgnSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public void onMove(PgnGame game, Board board, int move) {
+        final int ply = (board.getMoveCounter() - 1) * 2 + (Piece.isBlack(board.activeColor) ? 1 : 0);
+
+        if (ply < maxPly) {
+            index.get().add(PositionIndex.key(board), move, result(game.getResult()));
+        }
+    }
+
+    private synchronized PositionIndex newIndex() {
+        final PositionIndex created = new PositionIndex();
+        indexes.add(created);
+        return created;
+    }
+
+    private static int result(String result) {
+        return switch (result) {
+            case "1-0" ->
+                PositionIndex.WHITE_WINS;
+            case "0-1" ->
+                PositionIndex.BLACK_WINS;
+            case "1/2-1/2" ->
+                PositionIndex.DRAWS;
+            default ->
+                PositionIndex.UNFINISHED;
+        };
+    }
+}
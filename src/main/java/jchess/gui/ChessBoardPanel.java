@@ -22,7 +22,9 @@ import javax.swing.JPanel;
 import jchess.Bits;
 import jchess.Board;
 import jchess.Move;
+import jchess.MoveList;
 import jchess.Notation;
+import jchess.PackedMove;
 import jchess.Piece;
 import jchess.Square;
 import jchess.util.Pair;
@@ -49,6 +51,7 @@ public class ChessBoardPanel extends JPanel {
     private final Point dragPosition = new Point(0, 0);
 
     private final Board board;
+    private final MoveList legalMoves = new MoveList();
 
     private final Pair<Integer, Boolean> inCheckCache = new Pair<>(0, false);
 
@@ -78,6 +81,8 @@ public class ChessBoardPanel extends JPanel {
     private int hoveringSquare = -1;
     private int dragPiece = Piece.NONE;
     private long moveSquares = 0L;
+    private Runnable moveListener = () -> {
+    };
 
     public ChessBoardPanel(Board board) {
         this.board = board;
@@ -86,6 +91,13 @@ public class ChessBoardPanel extends JPanel {
         addMouseMotionListener(mouseAdapter);
     }
 
+    /**
+     * @param moveListener called after each move made on the board
+     */
+    public void setMoveListener(Runnable moveListener) {
+        this.moveListener = moveListener;
+    }
+
     @Override
     public Dimension getPreferredSize() {
         return new Dimension(BOARD_SIZE, BOARD_SIZE);
@@ -95,6 +107,8 @@ public class ChessBoardPanel extends JPanel {
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
 
+        final Move lastMove = board.getLastMove();
+
         for (int i = 0; i < 64; i++) {
             final Square square = new Square(i);
             final int piece = board.getPiece(i);
@@ -113,9 +127,9 @@ public class ChessBoardPanel extends JPanel {
                 drawCheckHighlight(g, square);
             }
 
-            if (board.lastMove != null
-                    && (square.equals(board.lastMove.fromSquare())
-                    || square.equals(board.lastMove.toSquare()))) {
+            if (lastMove != null
+                    && (square.equals(lastMove.fromSquare())
+                    || square.equals(lastMove.toSquare()))) {
                 drawHighlight(g, square, COLOR_MOVE_HIGHLIGHT);
             }
 
@@ -293,7 +307,19 @@ public class ChessBoardPanel extends JPanel {
 
     private void selectSquare(int index) {
         selectedSquare = index;
-        moveSquares = board.generateMovesFor(new Square(selectedSquare));
+        moveSquares = 0L;
+
+        // Only legal moves are offered, so a pinned piece or a king in
+        // check can't be dropped on a square it may not move to
+        board.generateLegalMoves(legalMoves);
+
+        for (int i = 0; i < legalMoves.size(); i++) {
+            final int move = legalMoves.get(i);
+
+            if (PackedMove.getFrom(move) == selectedSquare) {
+                moveSquares = Bits.setBit(moveSquares, PackedMove.getTo(move), true);
+            }
+        }
     }
 
     private boolean isSelected(int index) {
@@ -309,6 +335,7 @@ public class ChessBoardPanel extends JPanel {
         board.makeMove(new Move(new Square(selectedSquare), new Square(toIndex)));
         clearSelection();
         clearHovering();
+        moveListener.run();
     }
 
     private void startDrag(int x, int y, int piece) {
@@ -0,0 +1,57 @@
+package jchess.gui;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.util.List;
+
+import javax.swing.JTextArea;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.San;
+import jchess.explorer.MoveStats;
+import jchess.explorer.PositionIndex;
+
+/**
+ * Lists the moves played from the board's position in a {@link PositionIndex},
+ * with how often each was played and how the games went on.
+ */
+public class ExplorerPanel extends JTextArea {
+
+    private final Board board;
+    private final PositionIndex index;
+    private final MoveList moves = new MoveList();
+
+    public ExplorerPanel(Board board, PositionIndex index) {
+        this.board = board;
+        this.index = index;
+
+        setEditable(false);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 16));
+        update();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(360, super.getPreferredSize().height);
+    }
+
+    /**
+     * Looks up the board's current position
+     */
+    public void update() {
+        final List<MoveStats> stats = index.lookup(board);
+        final StringBuilder text = new StringBuilder(String.format("%-8s %8s %5s %5s %5s%n",
+                "Move", "Games", "White", "Draw", "Black"));
+
+        for (MoveStats move : stats) {
+            final long decided = Math.max(1, move.whiteWins() + move.draws() + move.blackWins());
+
+            text.append(String.format("%-8s %8d %4d%% %4d%% %4d%%%n",
+                    San.toString(board, move.move(), moves), move.games(),
+                    move.whiteWins() * 100 / decided, move.draws() * 100 / decided, move.blackWins() * 100 / decided));
+        }
+
+        setText(text.toString());
+    }
+}
@@ -0,0 +1,106 @@
+package jchess.match;
+
+import java.util.List;
+
+import jchess.Board;
+
+/**
+ * A finished game of a {@link MatchRunner} match.
+ *
+ * @param round the game's number in the match, starting at 1
+ * @param fen the starting position
+ * @param moves the moves in SAN
+ * @param result {@code 1-0}, {@code 0-1} or {@code 1/2-1/2}
+ * @param firstIsWhite whether the match's first player had white
+ * @param nodes nodes searched by both players
+ */
+public record MatchGame(int round, String white, String black, String fen, TimeControl timeControl,
+        List<String> moves, String result, Termination termination, boolean firstIsWhite, long nodes) {
+
+    private static final int LINE_LENGTH = 80;
+
+    /**
+     * @return 1 for a win of the match's first player, 0.5 for a draw, 0 for a
+     * loss
+     */
+    public double firstPlayerScore() {
+        return switch (result) {
+            case "1-0" ->
+                firstIsWhite ? 1 : 0;
+            case "0-1" ->
+                firstIsWhite ? 0 : 1;
+            default ->
+                0.5;
+        };
+    }
+
+    /**
+     * Formats the game in PGN, with the movetext wrapped at 80 columns and
+     * the way it ended in a comment after the last move
+     */
+    public StringBuilder appendPgn(StringBuilder pgn) {
+        appendTag(pgn, "Event", "JChess match");
+        appendTag(pgn, "Site", "?");
+        appendTag(pgn, "Round", Integer.toString(round));
+        appendTag(pgn, "White", white);
+        appendTag(pgn, "Black", black);
+        appendTag(pgn, "Result", result);
+
+        if (!fen.equals(Board.START_FEN)) {
+            appendTag(pgn, "SetUp", "1");
+            appendTag(pgn, "FEN", fen);
+        }
+
+        appendTag(pgn, "TimeControl", timeControl.toString());
+        appendTag(pgn, "PlyCount", Integer.toString(moves.size()));
+        appendTag(pgn, "Termination", termination == Termination.TIME_FORFEIT ? "time forfeit" : "normal");
+        pgn.append('\n');
+
+        final String[] fields = fen.split(" ");
+        final boolean blackStarts = fields[1].equals("b");
+        final int firstMove = Integer.parseInt(fields[5]);
+        int lineStart = pgn.length();
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int ply = i + (blackStarts ? 1 : 0);
+            String token = moves.get(i);
+
+            if (ply % 2 == 0) {
+                token = (firstMove + ply / 2) + ". " + token;
+            } else if (i == 0) {
+                token = firstMove + "... " + token;
+            }
+
+            lineStart = appendToken(pgn, token, lineStart);
+        }
+
+        lineStart = appendToken(pgn, "{" + termination.getDescription() + "}", lineStart);
+        appendToken(pgn, result, lineStart);
+
+        return pgn.append("\n\n");
+    }
+
+    private static void appendTag(StringBuilder pgn, String name, String value) {
+        pgn.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\"]\n");
+    }
+
+    /**
+     * @return where the current line starts
+     */
+    private static int appendToken(StringBuilder pgn, String token, int lineStart) {
+        if (pgn.length() > lineStart) {
+            if (pgn.length() - lineStart + 1 + token.length() > LINE_LENGTH) {
+                pgn.append('\n');
+                lineStart = pgn.length();
+            } else {
+                pgn.append(' ');
+            }
+        }
+
+        pgn.append(token);
+
+        return lineStart;
+    }
+}
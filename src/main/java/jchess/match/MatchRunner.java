@@ -0,0 +1,204 @@
+package jchess.match;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.Piece;
+import jchess.San;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+import jchess.util.ProgressClock;
+import jchess.util.WorkerPool;
+
+/**
+ * Plays a match between two players, many games at once, for testing
+ * engine changes.
+ *
+ * The games are played in pairs from each opening of a list, with the
+ * players swapping colors, on a {@link WorkerPool}, each thread playing on
+ * its own reused {@link Board} with players of its own. Searches are timed
+ * with the wall clock, so there should be no more games at once than
+ * cores. A game ends by the rules (see {@link Termination}) or when a
+ * player oversteps its clock, and the games are written as PGN in round
+ * order as they end.
+ */
+public final class MatchRunner {
+
+    private static final int IN_FLIGHT_PER_THREAD = 2;
+
+    private final Supplier<Player> first;
+    private final Supplier<Player> second;
+    private final TimeControl timeControl;
+    private final int concurrency;
+
+    /**
+     * @param first creates the first player for each game thread
+     * @param second creates the second player for each game thread
+     * @param concurrency number of games played at once
+     */
+    public MatchRunner(Supplier<Player> first, Supplier<Player> second, TimeControl timeControl, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+        }
+
+        this.first = first;
+        this.second = second;
+        this.timeControl = timeControl;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param openings starting positions in FEN, used in turn
+     * @param games number of games, the first player has white in the odd
+     * numbered ones
+     * @param pgn receives every game in round order, may be null
+     * @param progress receives the running totals about once a second, may
+     * be null
+     * @return the totals from the first player's point of view
+     * @throws IllegalArgumentException if an opening isn't valid FEN
+     */
+    public MatchSummary run(List<String> openings, int games, Writer pgn, PrintStream progress)
+            throws IOException, InterruptedException {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings");
+        }
+
+        final Board board = new Board();
+
+        for (String opening : openings) {
+            board.loadFen(opening);
+        }
+
+        final ProgressClock clock = new ProgressClock();
+        final WorkerPool<Worker, MatchGame> pool = new WorkerPool<>(concurrency, IN_FLIGHT_PER_THREAD,
+                () -> new Worker(first.get(), second.get(), timeControl), Worker::close);
+        final StringBuilder text = new StringBuilder();
+
+        long wins = 0;
+        long draws = 0;
+        long losses = 0;
+        long nodes = 0;
+
+        try {
+            for (int i = 0; i < games || !pool.isEmpty(); i++) {
+                if (i < games) {
+                    final int round = i + 1;
+                    final String opening = openings.get(i / 2 % openings.size());
+                    final boolean firstIsWhite = i % 2 == 0;
+
+                    pool.submit(worker -> worker.play(round, opening, firstIsWhite));
+
+                    if (!pool.isFull()) {
+                        continue;
+                    }
+                }
+
+                final MatchGame game = pool.take();
+                final double score = game.firstPlayerScore();
+
+                wins += score == 1 ? 1 : 0;
+                draws += score == 0.5 ? 1 : 0;
+                losses += score == 0 ? 1 : 0;
+                nodes += game.nodes();
+
+                if (pgn != null) {
+                    text.setLength(0);
+                    pgn.append(game.appendPgn(text));
+                    pgn.flush();
+                }
+
+                if (progress != null && clock.isDue()) {
+                    progress.println(new MatchSummary(wins, draws, losses, nodes, clock.getElapsedNanos()));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new MatchSummary(wins, draws, losses, nodes, clock.getElapsedNanos());
+    }
+
+    /**
+     * Board and players of one pool thread, reused for every game the thread
+     * plays
+     */
+    private static final class Worker {
+
+        private final Board board = new Board();
+        private final MoveList moves = new MoveList();
+        private final long[] clockNanos = new long[2];
+
+        private final Player first;
+        private final Player second;
+        private final TimeControl timeControl;
+
+        Worker(Player first, Player second, TimeControl timeControl) {
+            this.first = first;
+            this.second = second;
+            this.timeControl = timeControl;
+        }
+
+        MatchGame play(int round, String opening, boolean firstIsWhite) {
+            final Player white = firstIsWhite ? first : second;
+            final Player black = firstIsWhite ? second : first;
+            final List<String> sans = new ArrayList<>();
+            long nodes = 0;
+
+            board.loadFen(opening);
+
+            final String fen = board.toFen();
+
+            white.newGame();
+            black.newGame();
+            clockNanos[0] = clockNanos[1] = timeControl.baseMillis() * 1_000_000;
+
+            while (true) {
+                final Termination termination = Termination.of(board, moves);
+                final boolean whiteToMove = Piece.isWhite(board.activeColor);
+
+                if (termination != null) {
+                    final String result = termination != Termination.CHECKMATE ? "1/2-1/2" : whiteToMove ? "0-1" : "1-0";
+                    return game(round, white, black, fen, sans, result, termination, firstIsWhite, nodes);
+                }
+
+                final int side = whiteToMove ? 0 : 1;
+                final long moveTime = SearchLimits.moveTime(clockNanos[side] / 1_000_000, timeControl.incrementMillis(), 0);
+                final long start = System.nanoTime();
+                final SearchInfo info = (whiteToMove ? white : black).search(board, SearchLimits.time(moveTime));
+
+                nodes += info.nodes();
+                clockNanos[side] -= System.nanoTime() - start;
+
+                if (clockNanos[side] < 0) {
+                    // A flag against a bare king can't lose
+                    final String result = !Termination.hasMatingMaterial(board, Piece.getOppositeColor(board.activeColor))
+                            ? "1/2-1/2"
+                            : whiteToMove ? "0-1" : "1-0";
+                    return game(round, white, black, fen, sans, result, Termination.TIME_FORFEIT, firstIsWhite, nodes);
+                }
+
+                clockNanos[side] += timeControl.incrementMillis() * 1_000_000;
+
+                sans.add(San.toString(board, info.bestMove(), moves));
+                board.makeMove(info.bestMove());
+            }
+        }
+
+        private MatchGame game(int round, Player white, Player black, String fen, List<String> sans, String result,
+                Termination termination, boolean firstIsWhite, long nodes) {
+            return new MatchGame(round, white.getName(), black.getName(), fen, timeControl, sans, result, termination,
+                    firstIsWhite, nodes);
+        }
+
+        void close() {
+            first.close();
+            second.close();
+        }
+    }
+}
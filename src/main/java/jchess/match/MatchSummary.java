@@ -0,0 +1,70 @@
+package jchess.match;
+
+/**
+ * Totals of a {@link MatchRunner} match, from the first player's point of
+ * view.
+ *
+ * @param nodes nodes searched by both players in all games
+ * @param nanos wall clock time of the match
+ */
+public record MatchSummary(long wins, long draws, long losses, long nodes, long nanos) {
+
+    // Two-sided 95% confidence
+    private static final double Z_95 = 1.959964;
+
+    public long games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return the share of points scored, from 0 to 1
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + draws * 0.5) / games();
+    }
+
+    /**
+     * @return the Elo difference the score corresponds to, infinite if every
+     * game was won or lost
+     */
+    public double eloDifference() {
+        return elo(score());
+    }
+
+    /**
+     * Half the width of the 95% confidence interval of the Elo difference,
+     * from the normal approximation of the per game score's variance: plus
+     * or minus this covers the true difference 19 times out of 20
+     */
+    public double eloError() {
+        if (games() < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        final double score = score();
+        final double variance = (wins * Math.pow(1 - score, 2)
+                + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games();
+        final double margin = Z_95 * Math.sqrt(variance / games());
+
+        return (elo(Math.min(1, score + margin)) - elo(Math.max(0, score - margin))) / 2;
+    }
+
+    /**
+     * @return nodes searched per second over all games played at once
+     */
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games +%d =%d -%d, score %.1f%%, Elo %+.1f +/- %.1f, %d nodes/s, %d ms",
+                games(), wins, draws, losses, score() * 100, eloDifference(), eloError(), nodesPerSecond(),
+                nanos / 1_000_000);
+    }
+
+    private static double elo(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
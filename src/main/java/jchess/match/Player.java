@@ -0,0 +1,30 @@
+package jchess.match;
+
+import jchess.Board;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+
+/**
+ * One side of a {@link MatchRunner} match. Each game thread gets players
+ * of its own and reuses them for all the games it plays.
+ */
+public interface Player extends AutoCloseable {
+
+    String getName();
+
+    /**
+     * Forgets what was learned in the previous game
+     */
+    void newGame();
+
+    /**
+     * Picks a move for the board's position. The board must be back in that
+     * position when this returns.
+     *
+     * @param limits the time budgeted from the player's clock
+     */
+    SearchInfo search(Board board, SearchLimits limits);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,56 @@
+package jchess.match;
+
+import jchess.Board;
+import jchess.engine.Search;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+import jchess.engine.TranspositionTable;
+
+/**
+ * A {@link Player} searching with this engine's {@link Search} and a
+ * transposition table of its own.
+ */
+public final class SearchPlayer implements Player {
+
+    private final String name;
+    private final SearchLimits limits;
+    private final TranspositionTable table;
+
+    private Board board;
+    private Search search;
+
+    /**
+     * @param limits depth or node limit to search with instead of the clock,
+     * for reproducible games, or null. The clock still runs.
+     */
+    public SearchPlayer(String name, int hashMb, SearchLimits limits) {
+        this.name = name;
+        this.limits = limits;
+        this.table = new TranspositionTable(hashMb);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void newGame() {
+        table.clear();
+    }
+
+    @Override
+    public SearchInfo search(Board board, SearchLimits clockLimits) {
+        if (board != this.board) {
+            this.board = board;
+            this.search = new Search(board, table);
+        }
+
+        return search.search(limits != null ? limits : clockLimits, null);
+    }
+
+    @Override
+    public void close() {
+        table.close();
+    }
+}
@@ -0,0 +1,91 @@
+package jchess.match;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.Piece;
+
+/**
+ * Why a game ended.
+ */
+public enum Termination {
+
+    CHECKMATE("checkmate"),
+    STALEMATE("stalemate"),
+    REPETITION("threefold repetition"),
+    FIFTY_MOVES("fifty move rule"),
+    INSUFFICIENT_MATERIAL("insufficient material"),
+    TIME_FORFEIT("time forfeit");
+
+    private final String description;
+
+    Termination(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Checks whether the game is over in the board's position
+     *
+     * @param moves scratch list the legal moves are generated into
+     * @return why the game is over, or null if it isn't
+     */
+    public static Termination of(Board board, MoveList moves) {
+        board.generateLegalMoves(moves);
+
+        if (moves.size() == 0) {
+            return board.isKingInCheck(board.activeColor) ? CHECKMATE : STALEMATE;
+        }
+        if (isInsufficientMaterial(board)) {
+            return INSUFFICIENT_MATERIAL;
+        }
+        if (board.getHalfMoveCounter() >= 100) {
+            return FIFTY_MOVES;
+        }
+        if (board.getRepetitionCount() >= 2) {
+            return REPETITION;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true if neither side can mate with any series of legal
+     * moves: only kings and at most one minor piece remain, or only kings
+     * and bishops that all stand on squares of one color
+     */
+    public static boolean isInsufficientMaterial(Board board) {
+        if (count(board, Piece.PAWN) + count(board, Piece.ROOK) + count(board, Piece.QUEEN) != 0) {
+            return false;
+        }
+
+        final long bishops = pieces(board, Piece.BISHOP);
+
+        if (Long.bitCount(bishops) + count(board, Piece.KNIGHT) <= 1) {
+            return true;
+        }
+
+        final long darkSquares = 0xAA55AA55AA55AA55L;
+
+        return count(board, Piece.KNIGHT) == 0 && ((bishops & darkSquares) == 0 || (bishops & ~darkSquares) == 0);
+    }
+
+    /**
+     * @return true if the side has a piece besides its king it might mate
+     * with, used to score a time forfeit against a bare king as a draw
+     */
+    static boolean hasMatingMaterial(Board board, int color) {
+        return (board.getColorBitBoard(color) & ~board.getPieceBitBoard(Piece.create(Piece.KING, color))) != 0;
+    }
+
+    private static long pieces(Board board, int type) {
+        return board.getPieceBitBoard(Piece.create(type, Piece.WHITE))
+                | board.getPieceBitBoard(Piece.create(type, Piece.BLACK));
+    }
+
+    private static int count(Board board, int type) {
+        return Long.bitCount(pieces(board, type));
+    }
+}
@@ -0,0 +1,40 @@
+package jchess.match;
+
+/**
+ * A clock of a fixed base time plus an increment per move, as in the PGN
+ * {@code TimeControl} tag.
+ */
+public record TimeControl(long baseMillis, long incrementMillis) {
+
+    public TimeControl {
+        if (baseMillis <= 0 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Invalid time control: " + baseMillis + "+" + incrementMillis + " ms");
+        }
+    }
+
+    /**
+     * @param control base and optional increment in seconds, e.g. {@code 10+0.1}
+     * or {@code 60}
+     */
+    public static TimeControl parse(String control) {
+        final int plus = control.indexOf('+');
+
+        try {
+            final double base = Double.parseDouble(plus < 0 ? control : control.substring(0, plus));
+            final double increment = plus < 0 ? 0 : Double.parseDouble(control.substring(plus + 1));
+
+            return new TimeControl(Math.round(base * 1000), Math.round(increment * 1000));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid time control: [" + control + "]");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return seconds(baseMillis) + (incrementMillis == 0 ? "" : "+" + seconds(incrementMillis));
+    }
+
+    private static String seconds(long millis) {
+        return millis % 1000 == 0 ? Long.toString(millis / 1000) : Double.toString(millis / 1000.0);
+    }
+}
@@ -0,0 +1,21 @@
+package jchess.pgn;
+
+import jchess.Board;
+
+/**
+ * Receives the moves of the games a {@link PgnReplayer} accepts. Games are
+ * replayed on several threads at once, so implementations must be thread
+ * safe; the board belongs to the calling thread and may only be read
+ * during the call.
+ */
+@FunctionalInterface
+public interface GameListener {
+
+    /**
+     * Called for every move of an accepted game, in order
+     *
+     * @param board the position before the move
+     * @param move the move, as generated by {@link Board#generateLegalMoves}
+     */
+    void onMove(PgnGame game, Board board, int move);
+}
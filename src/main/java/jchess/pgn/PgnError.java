@@ -0,0 +1,21 @@
+package jchess.pgn;
+
+/**
+ * Why a game was rejected.
+ *
+ * @param game position of the game in its file, starting at 1
+ * @param line line the game starts on
+ * @param ply the ply of the offending move, starting at 1, or 0 if the
+ * game's text or starting position is malformed
+ * @param move the offending move, or null
+ * @param message what is wrong
+ */
+public record PgnError(long game, long line, int ply, String move, String message) {
+
+    @Override
+    public String toString() {
+        return "Game " + game + " (line " + line + ")"
+                + (ply > 0 ? ", ply " + ply + " " + move : "")
+                + ": " + message;
+    }
+}
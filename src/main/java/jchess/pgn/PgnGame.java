@@ -0,0 +1,93 @@
+package jchess.pgn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A game as read by a {@link PgnReader}: its tag pairs, the SAN moves of
+ * its main line and its result. Comments, variations and annotations are
+ * dropped.
+ */
+public final class PgnGame {
+
+    private final long number;
+    private final long line;
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+
+    private String result = "*";
+    private String error;
+
+    PgnGame(long number, long line) {
+        this.number = number;
+        this.line = line;
+    }
+
+    /**
+     * @return the position of the game in its file, starting at 1
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    /**
+     * @return the line the game starts on, starting at 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * @return the value of a tag, or null
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * @return {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *}
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return the reason the game's text is malformed, or null
+     */
+    public String getError() {
+        return error;
+    }
+
+    void putTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    void addMove(String move) {
+        moves.add(move);
+    }
+
+    int getMoveCount() {
+        return moves.size();
+    }
+
+    void setResult(String result) {
+        this.result = result;
+    }
+
+    void setError(String error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package jchess.pgn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the games of a PGN file: https://www.chessprogramming.org/Portable_Game_Notation
+ *
+ * The input is read through a fixed-size buffer, so archives of any size are
+ * read in constant memory, and a game may be at most
+ * {@value #MAX_MOVES} plies with tokens of at most
+ * {@value #MAX_TOKEN_LENGTH} bytes. Comments, variations, numeric
+ * annotation glyphs and move numbers are skipped.
+ *
+ * A game whose text is malformed is still returned, with
+ * {@link PgnGame#getError()} set, and reading continues with the next game,
+ * which starts at the next tag pair after the result or the error.
+ */
+public final class PgnReader implements AutoCloseable {
+
+    public static final int MAX_MOVES = 2048;
+    public static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int EOF = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] token = new byte[MAX_TOKEN_LENGTH];
+
+    private long line = 1;
+    private boolean atLineStart = true;
+    private long games = 0;
+    private long bytesRead = 0;
+
+    public PgnReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    /**
+     * @return how many bytes were read from the channel so far
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     */
+    public PgnGame next() throws IOException {
+        if (games == 0) {
+            skipByteOrderMark();
+        }
+
+        skipWhitespace();
+
+        if (peek() == EOF) {
+            return null;
+        }
+
+        final PgnGame game = new PgnGame(++games, line);
+
+        while (peek() == '[') {
+            readTag(game);
+            skipWhitespace();
+        }
+
+        readMovetext(game);
+
+        return game;
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        final long tagLine = line;
+        read();
+        skipSpaces();
+
+        int length = 0;
+
+        while (isSymbolCharacter(peek()) && length < MAX_TOKEN_LENGTH) {
+            token[length++] = (byte) read();
+        }
+
+        final String name = new String(token, 0, length, StandardCharsets.US_ASCII);
+        skipSpaces();
+
+        if (name.isEmpty() || read() != '"') {
+            malformed(game, "malformed tag pair", tagLine);
+            return;
+        }
+
+        length = 0;
+
+        for (int c = read(); c != '"'; c = read()) {
+            if (c == '\\') {
+                c = read();
+            }
+            if (c == EOF || c == '\n') {
+                malformed(game, "unterminated tag value", tagLine);
+                return;
+            }
+            if (length == MAX_TOKEN_LENGTH) {
+                malformed(game, "tag value too long", tagLine);
+                return;
+            }
+
+            token[length++] = (byte) c;
+        }
+
+        skipSpaces();
+
+        if (read() != ']') {
+            malformed(game, "malformed tag pair", tagLine);
+            return;
+        }
+
+        game.putTag(name, new String(token, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private void readMovetext(PgnGame game) throws IOException {
+        while (true) {
+            skipWhitespace();
+
+            final int c = peek();
+
+            if (c == EOF || (c == '[' && atLineStart)) {
+                game.setError("missing result");
+                return;
+            }
+
+            if ((c == '%' && atLineStart) || c == ';') {
+                skipLine();
+            } else if (c == '{') {
+                skipComment(game);
+            } else if (c == '(') {
+                skipVariation(game);
+            } else if (c == '$') {
+                read();
+                while (isDigit(peek())) {
+                    read();
+                }
+            } else if (c == ')' || c == '}') {
+                read();
+                game.setError("unbalanced '" + (char) c + "'");
+            } else if (readMoveToken(game)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a SAN move or a result, skipping a move number in front
+     *
+     * @return true if the token was the game's result
+     */
+    private boolean readMoveToken(PgnGame game) throws IOException {
+        int length = 0;
+
+        while (length < MAX_TOKEN_LENGTH && isTokenCharacter(peek())) {
+            token[length++] = (byte) read();
+        }
+
+        if (length == 0) {
+            game.setError("unexpected character '" + (char) read() + "' on line " + line);
+            return false;
+        }
+
+        if (length == MAX_TOKEN_LENGTH) {
+            game.setError("token too long");
+            skipLine();
+            return false;
+        }
+
+        int start = 0;
+
+        while (start < length && isDigit(token[start])) {
+            start++;
+        }
+
+        if (start < length && token[start] == '.') {
+            while (start < length && token[start] == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+
+        if (start == length) {
+            return false;
+        }
+
+        final String move = new String(token, start, length - start, StandardCharsets.US_ASCII);
+
+        if (start == 0 && isResult(move)) {
+            game.setResult(move);
+            return true;
+        }
+
+        if (game.getMoveCount() == MAX_MOVES) {
+            game.setError("more than " + MAX_MOVES + " moves");
+        } else {
+            game.addMove(move);
+        }
+
+        return false;
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    private void skipComment(PgnGame game) throws IOException {
+        for (int c = read(); c != '}'; c = read()) {
+            if (c == EOF) {
+                game.setError("unterminated comment");
+                return;
+            }
+        }
+    }
+
+    private void skipVariation(PgnGame game) throws IOException {
+        int depth = 0;
+
+        do {
+            final int c = read();
+
+            if (c == EOF) {
+                game.setError("unterminated variation");
+                return;
+            }
+
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                skipComment(game);
+            } else if (c == ';') {
+                skipLine();
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Records the error and skips the rest of the line
+     */
+    private void malformed(PgnGame game, String reason, long tagLine) throws IOException {
+        game.setError(reason + " on line " + tagLine);
+
+        if (!atLineStart) {
+            skipLine();
+        }
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = read(); c != '\n' && c != EOF; c = read()) {
+            // Skip to the end of the line
+        }
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        if (peek() == 0xEF && buffer.remaining() >= 3
+                && (buffer.get(buffer.position() + 1) & 0xFF) == 0xBB
+                && (buffer.get(buffer.position() + 2) & 0xFF) == 0xBF) {
+            buffer.position(buffer.position() + 3);
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (Character.isWhitespace(peek())) {
+            read();
+        }
+    }
+
+    private void skipSpaces() throws IOException {
+        while (peek() == ' ' || peek() == '\t') {
+            read();
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSymbolCharacter(int c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isTokenCharacter(int c) {
+        return c > ' ' && c < 127 && "{}()[];$%".indexOf(c) < 0;
+    }
+
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return EOF;
+        }
+
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return EOF;
+        }
+
+        final int c = buffer.get() & 0xFF;
+
+        if (c == '\n') {
+            line++;
+        }
+
+        atLineStart = c == '\n';
+
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+
+        int read = channel.read(buffer);
+
+        while (read == 0) {
+            read = channel.read(buffer);
+        }
+
+        buffer.flip();
+
+        if (read > 0) {
+            bytesRead += read;
+        }
+
+        return read > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
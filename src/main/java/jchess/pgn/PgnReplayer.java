@@ -0,0 +1,150 @@
+package jchess.pgn;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.San;
+import jchess.util.ProgressClock;
+import jchess.util.WorkerPool;
+
+/**
+ * Replays every game of a PGN stream on a {@link WorkerPool}, each worker
+ * resolving SAN moves against the legal moves of its own reused
+ * {@link Board}.
+ *
+ * Games are read on the caller's thread by a {@link PgnReader} and handed
+ * to the workers with at most a few games per worker in flight, so memory
+ * use doesn't depend on the input size. A game is accepted only if its text
+ * is well-formed, its {@code FEN} tag (if any) is valid and every move is
+ * legal; only then are its moves passed to the {@link GameListener}, so a
+ * listener never sees part of a rejected game. Rejected games are reported
+ * as {@link PgnError}s in input order.
+ */
+public final class PgnReplayer {
+
+    private static final int IN_FLIGHT_PER_THREAD = 16;
+
+    private final int threads;
+
+    public PgnReplayer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+
+        this.threads = threads;
+    }
+
+    /**
+     * @param listener receives the moves of accepted games, may be null
+     * @param errors receives rejected games on the caller's thread, may be
+     * null
+     * @param progress receives a progress line about once a second, may be
+     * null
+     */
+    public PgnSummary run(PgnReader reader, GameListener listener, Consumer<PgnError> errors, PrintStream progress)
+            throws IOException, InterruptedException {
+        final ProgressClock clock = new ProgressClock();
+        final WorkerPool<Worker, Replay> pool = new WorkerPool<>(threads, IN_FLIGHT_PER_THREAD, Worker::new);
+
+        long games = 0;
+        long rejected = 0;
+        long moves = 0;
+
+        try {
+            for (PgnGame game = reader.next(); game != null || !pool.isEmpty(); game = reader.next()) {
+                if (game != null) {
+                    final PgnGame submitted = game;
+                    pool.submit(worker -> worker.replay(submitted, listener));
+
+                    if (!pool.isFull()) {
+                        continue;
+                    }
+                }
+
+                final Replay replay = pool.take();
+
+                games++;
+                moves += replay.moves();
+
+                if (replay.error() != null) {
+                    rejected++;
+
+                    if (errors != null) {
+                        errors.accept(replay.error());
+                    }
+                }
+
+                if (progress != null && clock.isDue()) {
+                    progress.println(
+                            new PgnSummary(games, rejected, moves, reader.getBytesRead(), clock.getElapsedNanos())
+                    );
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new PgnSummary(games, rejected, moves, reader.getBytesRead(), clock.getElapsedNanos());
+    }
+
+    private record Replay(int moves, PgnError error) {
+    }
+
+    /**
+     * Board and buffers of one pool thread, reused for every game the thread
+     * replays
+     */
+    private static final class Worker {
+
+        private final Board board = new Board();
+        private final MoveList legalMoves = new MoveList();
+        private final int[] moves = new int[PgnReader.MAX_MOVES];
+
+        Replay replay(PgnGame game, GameListener listener) {
+            if (game.getError() != null) {
+                return reject(game, 0, null, game.getError());
+            }
+
+            final String fen = game.getTag("FEN");
+
+            try {
+                board.loadFen(fen != null ? fen : Board.START_FEN);
+            } catch (IllegalArgumentException e) {
+                return reject(game, 0, null, e.getMessage());
+            }
+
+            final List<String> sans = game.getMoves();
+
+            for (int i = 0; i < sans.size(); i++) {
+                try {
+                    moves[i] = San.parse(board, sans.get(i), legalMoves);
+                } catch (IllegalArgumentException e) {
+                    return reject(game, i + 1, sans.get(i), e.getMessage());
+                }
+
+                board.makeMove(moves[i]);
+            }
+
+            if (listener != null) {
+                for (int i = sans.size() - 1; i >= 0; i--) {
+                    board.unmakeMove();
+                }
+
+                for (int i = 0; i < sans.size(); i++) {
+                    listener.onMove(game, board, moves[i]);
+                    board.makeMove(moves[i]);
+                }
+            }
+
+            return new Replay(sans.size(), null);
+        }
+
+        private static Replay reject(PgnGame game, int ply, String move, String message) {
+            return new Replay(0, new PgnError(game.getNumber(), game.getLine(), ply, move, message));
+        }
+    }
+}
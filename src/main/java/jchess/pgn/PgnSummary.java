@@ -0,0 +1,27 @@
+package jchess.pgn;
+
+/**
+ * Totals of a {@link PgnReplayer} run.
+ *
+ * @param games games read, including rejected ones
+ * @param errors games rejected
+ * @param moves moves replayed over all accepted games
+ * @param bytes bytes of PGN read
+ * @param nanos wall clock time of the run
+ */
+public record PgnSummary(long games, long errors, long moves, long bytes, long nanos) {
+
+    public long gamesPerSecond() {
+        return nanos == 0 ? 0 : games * 1_000_000_000L / nanos;
+    }
+
+    public long movesPerSecond() {
+        return nanos == 0 ? 0 : moves * 1_000_000_000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d errors), %d moves, %d MB in %d ms, %d games/s, %d moves/s",
+                games, errors, moves, bytes >> 20, nanos / 1_000_000, gamesPerSecond(), movesPerSecond());
+    }
+}
@@ -0,0 +1,154 @@
+package jchess.tablebase;
+
+import java.util.Arrays;
+
+import jchess.Board;
+import jchess.Piece;
+
+/**
+ * Material signatures, named like {@code KRvKP}: the white pieces, then the
+ * black ones, each starting with the king and strongest piece first
+ */
+final class Signature {
+
+    private Signature() {
+    }
+
+    /**
+     * @return the pieces besides the kings, white ones first, with the
+     * stronger side as white
+     * @throws IllegalArgumentException if the name isn't a signature of at
+     * most {@link Tablebase#MAX_PIECES} pieces
+     */
+    static int[] parse(String name) {
+        final int separator = name.indexOf('v');
+
+        if (separator < 0 || !name.startsWith("K") || name.indexOf('K', 1) != separator + 1
+                || name.length() - 1 > Tablebase.MAX_PIECES) {
+            throw new IllegalArgumentException("Invalid tablebase signature: " + name);
+        }
+
+        final int[] white = parseSide(name, 1, separator, Piece.WHITE);
+        final int[] black = parseSide(name, separator + 2, name.length(), Piece.BLACK);
+
+        if (compare(white, black) < 0) {
+            return concat(recolor(black, Piece.WHITE), recolor(white, Piece.BLACK));
+        }
+
+        return concat(white, black);
+    }
+
+    private static int[] parseSide(String name, int from, int to, int color) {
+        final int[] pieces = new int[to - from];
+
+        for (int i = from; i < to; i++) {
+            final char c = name.charAt(i);
+
+            if ("QRBNP".indexOf(c) < 0) {
+                throw new IllegalArgumentException("Invalid tablebase signature: " + name);
+            }
+
+            pieces[i - from] = Piece.create(Piece.getType(Piece.fromFenChar(c)), color);
+        }
+
+        // Strongest first
+        Arrays.sort(pieces);
+
+        for (int i = 0; i < pieces.length / 2; i++) {
+            final int piece = pieces[i];
+            pieces[i] = pieces[pieces.length - 1 - i];
+            pieces[pieces.length - 1 - i] = piece;
+        }
+
+        return pieces;
+    }
+
+    /**
+     * Compares the pieces of two sides, more pieces first, then the
+     * strongest pieces
+     */
+    private static int compare(int[] white, int[] black) {
+        if (white.length != black.length) {
+            return Integer.compare(white.length, black.length);
+        }
+
+        for (int i = 0; i < white.length; i++) {
+            final int compared = Integer.compare(Piece.getType(white[i]), Piece.getType(black[i]));
+
+            if (compared != 0) {
+                return compared;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int[] recolor(int[] pieces, int color) {
+        final int[] result = new int[pieces.length];
+
+        for (int i = 0; i < pieces.length; i++) {
+            result[i] = Piece.create(Piece.getType(pieces[i]), color);
+        }
+
+        return result;
+    }
+
+    private static int[] concat(int[] white, int[] black) {
+        final int[] result = Arrays.copyOf(white, white.length + black.length);
+        System.arraycopy(black, 0, result, white.length, black.length);
+
+        return result;
+    }
+
+    static String toName(int[] pieces) {
+        final StringBuilder white = new StringBuilder("K");
+        final StringBuilder black = new StringBuilder("K");
+
+        for (int piece : pieces) {
+            final char c = Character.toUpperCase(Piece.toFenChar(piece));
+            (Piece.isWhite(piece) ? white : black).append(c);
+        }
+
+        return white + "v" + black;
+    }
+
+    /**
+     * @return the signature with the pieces besides the kings, in any order,
+     * normalized like {@link #parse}
+     */
+    static int[] normalize(int[] pieces) {
+        return parse(toName(pieces));
+    }
+
+    /**
+     * Counts of every piece of both colors, four bits each, so positions with
+     * the same material have the same key
+     */
+    static long materialKey(Board board) {
+        long key = 0;
+
+        for (int type = Piece.KING; type <= Piece.QUEEN; type++) {
+            key |= (long) Long.bitCount(board.getPieceBitBoard(Piece.create(type, Piece.WHITE))) << shift(type, true);
+            key |= (long) Long.bitCount(board.getPieceBitBoard(Piece.create(type, Piece.BLACK))) << shift(type, false);
+        }
+
+        return key;
+    }
+
+    /**
+     * @param flipped whether to swap the colors of the pieces
+     */
+    static long materialKey(int[] pieces, boolean flipped) {
+        long key = (1L << shift(Piece.KING, true)) | (1L << shift(Piece.KING, false));
+
+        for (int piece : pieces) {
+            key += 1L << shift(Piece.getType(piece), Piece.isWhite(piece) != flipped);
+        }
+
+        return key;
+    }
+
+    private static int shift(int type, boolean white) {
+        return (type - Piece.KING) * 4 + (white ? 0 : 24);
+    }
+}
@@ -0,0 +1,267 @@
+package jchess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import jchess.Board;
+import jchess.Piece;
+
+/**
+ * Win/draw/loss table of every position of one material signature, like
+ * {@code KQvK} or {@code KRvKP}, with up to four pieces including the
+ * kings: https://www.chessprogramming.org/Endgame_Tablebases
+ *
+ * Results are packed two bits per position. Positions are indexed by the
+ * white king's square, reduced by symmetry, then the black king's and the
+ * other pieces' squares and the side to move:
+ *
+ * <pre>
+ * ((white king slot * 64 + black king) * 64 + piece 1) * 64 + piece 2) * 2 + black to move
+ * </pre>
+ *
+ * Without pawns the board is mirrored and flipped until the white king is
+ * on the a1-d1-d4 triangle, so there are 10 white king slots; pawns only
+ * allow mirroring the files, for 32 slots. Positions with the colors of
+ * the signature swapped, e.g. a black queen against the white king for
+ * {@code KQvK}, are looked up with the board flipped. Castling and en
+ * passant are ignored.
+ */
+public final class Tablebase {
+
+    public static final int UNKNOWN = 0;
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+
+    public static final int MAX_PIECES = 4;
+
+    private static final int[] TRIANGLE_SLOTS = new int[64];
+    private static final int[] TRIANGLE_SQUARES = new int[10];
+
+    static {
+        Arrays.fill(TRIANGLE_SLOTS, -1);
+
+        int slot = 0;
+
+        for (int rank = 0; rank < 4; rank++) {
+            for (int file = rank; file < 4; file++) {
+                TRIANGLE_SLOTS[rank * 8 + file] = slot;
+                TRIANGLE_SQUARES[slot++] = rank * 8 + file;
+            }
+        }
+    }
+
+    private final String name;
+    private final int[] pieces;
+    private final boolean hasPawns;
+    private final long materialKey;
+    private final long flippedMaterialKey;
+    private final int size;
+
+    private final long[] results;
+
+    /**
+     * @param pieces the pieces besides the kings, white ones first
+     */
+    Tablebase(int[] pieces) {
+        this.pieces = pieces.clone();
+        this.name = Signature.toName(pieces);
+        this.hasPawns = Arrays.stream(pieces).anyMatch(piece -> Piece.getType(piece) == Piece.PAWN);
+        this.materialKey = Signature.materialKey(pieces, false);
+        this.flippedMaterialKey = Signature.materialKey(pieces, true);
+        this.size = (hasPawns ? 32 : 10) * (1 << (6 * (pieces.length + 1))) * 2;
+        this.results = new long[(size + 31) / 32];
+    }
+
+    /**
+     * @return the signature, like {@code KRvKP}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the result for the side to move, or {@link #UNKNOWN} if the
+     * position has other material
+     */
+    public int probe(Board board) {
+        final int index = index(board);
+
+        return index < 0 ? UNKNOWN : get(index);
+    }
+
+    int get(int index) {
+        return (int) (results[index >>> 5] >>> ((index & 31) * 2)) & 0b11;
+    }
+
+    void set(int index, int result) {
+        final int shift = (index & 31) * 2;
+
+        results[index >>> 5] = (results[index >>> 5] & ~(0b11L << shift)) | ((long) result << shift);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] pieces() {
+        return pieces;
+    }
+
+    long materialKey() {
+        return materialKey;
+    }
+
+    long flippedMaterialKey() {
+        return flippedMaterialKey;
+    }
+
+    /**
+     * @return the index of the board's position, or -1 if it has other
+     * material
+     */
+    int index(Board board) {
+        final long material = Signature.materialKey(board);
+        final boolean flipped;
+
+        if (material == materialKey) {
+            flipped = false;
+        } else if (material == flippedMaterialKey) {
+            flipped = true;
+        } else {
+            return -1;
+        }
+
+        // Flipping swaps the colors and mirrors the ranks
+        final int white = flipped ? Piece.BLACK : Piece.WHITE;
+        final int black = flipped ? Piece.WHITE : Piece.BLACK;
+        final int flip = flipped ? 56 : 0;
+
+        final int whiteKing = square(board, Piece.create(Piece.KING, white)) ^ flip;
+        final int blackKing = square(board, Piece.create(Piece.KING, black)) ^ flip;
+        final int symmetry = symmetry(whiteKing);
+
+        int index = slot(transform(whiteKing, symmetry)) * 64 + transform(blackKing, symmetry);
+        long used = 0;
+
+        for (int piece : pieces) {
+            final int color = Piece.isWhite(piece) ? white : black;
+            final long candidates = board.getPieceBitBoard(Piece.create(Piece.getType(piece), color)) & ~used;
+            final int square = Long.numberOfTrailingZeros(candidates);
+
+            used |= 1L << square;
+            index = index * 64 + transform(square ^ flip, symmetry);
+        }
+
+        return index * 2 + (Piece.isBlack(board.activeColor) != flipped ? 1 : 0);
+    }
+
+    private static int square(Board board, int piece) {
+        return Long.numberOfTrailingZeros(board.getPieceBitBoard(piece));
+    }
+
+    /**
+     * Decodes an index into the white king's, the black king's and the
+     * other pieces' squares
+     *
+     * @return true if black is to move
+     */
+    boolean decode(int index, int[] squares) {
+        final boolean blackToMove = (index & 1) != 0;
+        index >>>= 1;
+
+        for (int i = pieces.length + 1; i > 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+
+        squares[0] = hasPawns ? (index / 4) * 8 + index % 4 : TRIANGLE_SQUARES[index];
+
+        return blackToMove;
+    }
+
+    private int symmetry(int whiteKing) {
+        int symmetry = (whiteKing & 7) > 3 ? 0b001 : 0;
+
+        if (!hasPawns) {
+            symmetry |= (whiteKing >>> 3) > 3 ? 0b010 : 0;
+
+            final int square = transform(whiteKing, symmetry);
+
+            if ((square >>> 3) > (square & 7)) {
+                symmetry |= 0b100;
+            }
+        }
+
+        return symmetry;
+    }
+
+    /**
+     * Applies a symmetry: bit 0 mirrors the files, bit 1 the ranks, and bit
+     * 2 then swaps files and ranks
+     */
+    private static int transform(int square, int symmetry) {
+        if ((symmetry & 0b001) != 0) {
+            square ^= 7;
+        }
+        if ((symmetry & 0b010) != 0) {
+            square ^= 56;
+        }
+        if ((symmetry & 0b100) != 0) {
+            square = ((square & 7) << 3) | (square >>> 3);
+        }
+
+        return square;
+    }
+
+    private int slot(int whiteKing) {
+        return hasPawns ? (whiteKing >>> 3) * 4 + (whiteKing & 7) : TRIANGLE_SLOTS[whiteKing];
+    }
+
+    /**
+     * Writes the packed results, as little-endian longs
+     */
+    public void write(Path path) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(results.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(results);
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write(Path)}
+     *
+     * @param name the signature, like {@code KRvKP}
+     */
+    public static Tablebase read(Path path, String name) throws IOException {
+        final Tablebase table = new Tablebase(Signature.parse(name));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != (long) table.results.length * Long.BYTES) {
+                throw new IOException("Size of " + path + " doesn't match a " + name + " table");
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of " + path);
+                }
+            }
+
+            buffer.flip().asLongBuffer().get(table.results);
+        }
+
+        return table;
+    }
+}
@@ -0,0 +1,266 @@
+package jchess.tablebase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.Piece;
+
+/**
+ * Fills a {@link Tablebase} by retrograde analysis:
+ * https://www.chessprogramming.org/Retrograde_Analysis
+ *
+ * The first pass marks impossible positions, mates and stalemates. Every
+ * following pass revisits the unresolved positions: a position is won if a
+ * move leads to a position lost for the opponent, and lost if every move
+ * leads to a position won for the opponent. Captures and promotions lead
+ * into smaller tables, which must already be generated. When a pass
+ * resolves nothing, the remaining positions are draws.
+ *
+ * Passes are split into chunks of positions shared out to a pool of
+ * threads, each with its own {@link Board}. A position's state only ever
+ * changes once, from unresolved to its result, so a thread seeing another
+ * thread's update late merely resolves a position one pass later.
+ */
+final class TablebaseGenerator {
+
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    // Generation states besides the results
+    private static final byte UNRESOLVED = Tablebase.UNKNOWN;
+    private static final byte INVALID = 4;
+
+    private final Tablebase table;
+    private final Tablebases smallerTables;
+    private final byte[] states;
+
+    TablebaseGenerator(Tablebase table, Tablebases smallerTables) {
+        this.table = table;
+        this.smallerTables = smallerTables;
+        this.states = new byte[table.size()];
+    }
+
+    void generate(int threads) throws InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            while (runPass(pool, threads)) {
+                // Every pass builds on the positions resolved by the last
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int i = 0; i < states.length; i++) {
+            table.set(i, switch (states[i]) {
+                case INVALID ->
+                    Tablebase.UNKNOWN;
+                case UNRESOLVED ->
+                    Tablebase.DRAW;
+                default ->
+                    states[i];
+            });
+        }
+    }
+
+    /**
+     * @return true if any position was resolved
+     */
+    private boolean runPass(ExecutorService pool, int threads) throws InterruptedException {
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicBoolean changed = new AtomicBoolean();
+        final List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                final Worker worker = new Worker();
+
+                for (int chunk = nextChunk.getAndIncrement(); chunk * CHUNK_SIZE < states.length;
+                     chunk = nextChunk.getAndIncrement()) {
+                    final int end = Math.min(states.length, (chunk + 1) * CHUNK_SIZE);
+
+                    for (int index = chunk * CHUNK_SIZE; index < end; index++) {
+                        if (worker.update(index)) {
+                            changed.set(true);
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Generating " + table.getName() + " failed", e.getCause());
+            }
+        }
+
+        return changed.get();
+    }
+
+    /**
+     * Board and buffers of one generating thread
+     */
+    private final class Worker {
+
+        private final Board board = new Board();
+        private final MoveList moves = new MoveList();
+        private final ByteBuffer binary = ByteBuffer.allocate(Board.BINARY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final int[] squares = new int[table.pieces().length + 2];
+        private final int[] codes = new int[64];
+
+        /**
+         * @return true if the position was resolved
+         */
+        boolean update(int index) {
+            if (states[index] != UNRESOLVED) {
+                return false;
+            }
+
+            if (!setUp(index)) {
+                states[index] = INVALID;
+                return false;
+            }
+
+            board.generateLegalMoves(moves);
+
+            if (moves.size() == 0) {
+                states[index] = (byte) (board.isKingInCheck(board.activeColor) ? Tablebase.LOSS : Tablebase.DRAW);
+                return true;
+            }
+
+            boolean allWon = true;
+
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                final int result = resultAfterMove();
+                board.unmakeMove();
+
+                if (result == Tablebase.LOSS) {
+                    states[index] = Tablebase.WIN;
+                    return true;
+                }
+
+                allWon &= result == Tablebase.WIN;
+            }
+
+            if (allWon) {
+                states[index] = Tablebase.LOSS;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * @return the result for the side to move after a move, or
+         * {@link #UNRESOLVED}
+         */
+        private int resultAfterMove() {
+            final int index = table.index(board);
+
+            if (index >= 0) {
+                return states[index];
+            }
+
+            final int result = smallerTables.probe(board);
+
+            if (result == Tablebase.UNKNOWN) {
+                throw new IllegalStateException(
+                        "No table for " + board.toFen() + " while generating " + table.getName()
+                );
+            }
+
+            return result;
+        }
+
+        /**
+         * Loads the position of an index into the board
+         *
+         * @return false if the index doesn't hold a legal position
+         */
+        private boolean setUp(int index) {
+            final boolean blackToMove = table.decode(index, squares);
+            final int[] pieces = table.pieces();
+            long occupancy = 0;
+
+            for (int square : squares) {
+                if ((occupancy & (1L << square)) != 0) {
+                    return false;
+                }
+
+                occupancy |= 1L << square;
+            }
+
+            final int whiteKing = squares[0];
+            final int blackKing = squares[1];
+            final int fileDistance = Math.abs((whiteKing & 7) - (blackKing & 7));
+            final int rankDistance = Math.abs((whiteKing >>> 3) - (blackKing >>> 3));
+
+            if (fileDistance <= 1 && rankDistance <= 1) {
+                return false;
+            }
+
+            codes[whiteKing] = Piece.KING;
+            codes[blackKing] = Piece.KING | 8;
+
+            for (int i = 0; i < pieces.length; i++) {
+                final int square = squares[i + 2];
+                final int type = Piece.getType(pieces[i]);
+
+                if (type == Piece.PAWN && (square < 8 || square >= 56)) {
+                    return false;
+                }
+
+                codes[square] = type | (Piece.isBlack(pieces[i]) ? 8 : 0);
+            }
+
+            writeBinary(occupancy, blackToMove);
+
+            // Rejects the positions where the side that just moved is left
+            // in check
+            try {
+                board.loadBinary(binary, 0);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Writes the position in the layout of {@link Board#writeBinary},
+         * without castling rights or en passant square
+         */
+        private void writeBinary(long occupancy, boolean blackToMove) {
+            binary.putLong(0, occupancy);
+            binary.putLong(8, 0L);
+            binary.putLong(16, 0L);
+
+            int nibble = 0;
+
+            for (long pieces = occupancy; pieces != 0; pieces &= pieces - 1, nibble++) {
+                final int code = codes[Long.numberOfTrailingZeros(pieces)];
+                final int offset = 8 + nibble / 2;
+
+                binary.put(offset, (byte) (binary.get(offset) | (code << ((nibble & 1) * 4))));
+            }
+
+            binary.put(24, (byte) (blackToMove ? 1 : 0));
+            binary.put(25, (byte) 0);
+            binary.putShort(26, (short) 0);
+            binary.putShort(28, (short) 1);
+            binary.putShort(30, (short) 0);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package jchess.tablebase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jchess.Board;
+import jchess.Piece;
+
+/**
+ * A set of {@link Tablebase}s, probed by the material of the position.
+ * Tables are generated with {@link #generate}, together with the smaller
+ * tables their captures and promotions lead into, and can be written to
+ * and loaded from a directory of {@code .wdl} files named by signature.
+ */
+public final class Tablebases {
+
+    public static final String EXTENSION = ".wdl";
+
+    private static final int[] PROMOTION_TYPES = {Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT};
+
+    // Keyed by material with both colorings of each table's signature
+    private final Map<Long, Tablebase> tables = new HashMap<>();
+    private final Collection<Tablebase> generated = new LinkedHashSet<>();
+
+    /**
+     * @return the result for the side to move, or {@link Tablebase#UNKNOWN}
+     * if there is no table for the position's material. Bare kings are a
+     * draw.
+     */
+    public int probe(Board board) {
+        if (Long.bitCount(board.getColorBitBoard(Piece.WHITE) | board.getColorBitBoard(Piece.BLACK)) == 2) {
+            return Tablebase.DRAW;
+        }
+
+        final Tablebase table = tables.get(Signature.materialKey(board));
+
+        return table == null ? Tablebase.UNKNOWN : table.probe(board);
+    }
+
+    /**
+     * @return the table of the signature, in either coloring, or null
+     */
+    public Tablebase get(String signature) {
+        return tables.get(Signature.materialKey(Signature.parse(signature), false));
+    }
+
+    public Collection<Tablebase> getTablebases() {
+        return List.copyOf(generated);
+    }
+
+    public void add(Tablebase table) {
+        tables.put(table.materialKey(), table);
+        tables.put(table.flippedMaterialKey(), table);
+        generated.add(table);
+    }
+
+    /**
+     * Generates the table of a signature like {@code KRvKP}, after the
+     * tables it depends on that aren't in the set yet
+     *
+     * @throws IllegalArgumentException if the signature is invalid
+     */
+    public Tablebase generate(String signature, int threads) throws InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+
+        return generate(Signature.parse(signature), threads);
+    }
+
+    private Tablebase generate(int[] pieces, int threads) throws InterruptedException {
+        final Tablebase existing = tables.get(Signature.materialKey(pieces, false));
+
+        if (existing != null) {
+            return existing;
+        }
+
+        for (int[] smaller : getSmallerSignatures(pieces)) {
+            generate(smaller, threads);
+        }
+
+        final Tablebase table = new Tablebase(pieces);
+        new TablebaseGenerator(table, this).generate(threads);
+        add(table);
+
+        return table;
+    }
+
+    /**
+     * @return the signatures a capture or promotion leads into, except bare
+     * kings
+     */
+    private static List<int[]> getSmallerSignatures(int[] pieces) {
+        final List<int[]> result = new ArrayList<>();
+
+        for (int i = 0; i < pieces.length; i++) {
+            if (pieces.length > 1) {
+                final int[] captured = new int[pieces.length - 1];
+                System.arraycopy(pieces, 0, captured, 0, i);
+                System.arraycopy(pieces, i + 1, captured, i, pieces.length - i - 1);
+                result.add(Signature.normalize(captured));
+            }
+
+            if (Piece.getType(pieces[i]) == Piece.PAWN) {
+                for (int type : PROMOTION_TYPES) {
+                    final int[] promoted = Arrays.copyOf(pieces, pieces.length);
+                    promoted[i] = Piece.create(type, Piece.getColor(pieces[i]));
+                    result.add(Signature.normalize(promoted));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes every table to a file named by its signature
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        for (Tablebase table : generated) {
+            table.write(directory.resolve(table.getName() + EXTENSION));
+        }
+    }
+
+    /**
+     * Adds every table of the directory
+     */
+    public void load(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                final String fileName = file.getFileName().toString();
+
+                if (fileName.endsWith(EXTENSION)) {
+                    add(Tablebase.read(file, fileName.substring(0, fileName.length() - EXTENSION.length())));
+                }
+            }
+        }
+    }
+}
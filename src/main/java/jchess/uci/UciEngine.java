@@ -0,0 +1,371 @@
+package jchess.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jchess.Board;
+import jchess.MoveList;
+import jchess.PackedMove;
+import jchess.Piece;
+import jchess.book.PolyglotBook;
+import jchess.engine.ParallelSearch;
+import jchess.engine.SearchInfo;
+import jchess.engine.SearchLimits;
+import jchess.engine.TranspositionTable;
+
+/**
+ * Universal Chess Interface front-end: https://www.chessprogramming.org/UCI
+ *
+ * Commands are read on the caller's thread while searches run on a thread
+ * of their own, so {@code stop} and {@code isready} are answered during a
+ * search. Commands that change the engine's state, like {@code position}
+ * or {@code setoption}, stop a running search first, as an infinite
+ * search would never finish on its own.
+ */
+public final class UciEngine {
+
+    public static final String NAME = "JChess";
+    public static final String AUTHOR = "kris10ansn";
+
+    private static final int DEFAULT_HASH_MB = 16;
+    private static final int MAX_HASH_MB = 4096;
+    private static final int MAX_THREADS = 256;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    private final TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB);
+    private final MoveList moves = new MoveList();
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Board board = new Board(Board.START_FEN);
+    private ParallelSearch search = new ParallelSearch(table, 1);
+    private Thread searchThread;
+
+    private PolyglotBook book;
+    private boolean ownBook = false;
+
+    // Set by stop, created before each search starts so an early stop
+    // isn't lost
+    private AtomicBoolean stopFlag = new AtomicBoolean();
+
+    // Counted down by stop, an infinite search waits for it before
+    // reporting its best move
+    private CountDownLatch stopSignal = new CountDownLatch(0);
+
+    public UciEngine(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Handles commands until {@code quit} or the end of the input
+     */
+    public void run() throws IOException {
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (!handle(line)) {
+                    break;
+                }
+            }
+        } finally {
+            stopSearch();
+            table.close();
+
+            if (book != null) {
+                book.close();
+            }
+        }
+    }
+
+    /**
+     * @return false if the command was {@code quit}
+     */
+    boolean handle(String line) {
+        final String[] tokens = line.trim().split("\\s+");
+
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name OwnBook type check default false");
+                send("option name BookFile type string default <empty>");
+                send("uciok");
+            }
+            case "isready" ->
+                send("readyok");
+            case "ucinewgame" -> {
+                stopSearch();
+                table.clear();
+            }
+            case "setoption" -> {
+                stopSearch();
+                setOption(tokens);
+            }
+            case "position" -> {
+                stopSearch();
+                setPosition(tokens);
+            }
+            case "go" -> {
+                stopSearch();
+                go(tokens);
+            }
+            case "stop" ->
+                stopSearch();
+            case "quit" -> {
+                return false;
+            }
+            case "" -> {
+            }
+            default ->
+                send("info string Unknown command: " + line.trim());
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits for the running search, if any, to report its best move
+     */
+    void waitForSearch() {
+        if (searchThread == null) {
+            return;
+        }
+
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        searchThread = null;
+    }
+
+    private void stopSearch() {
+        stopFlag.set(true);
+        stopSignal.countDown();
+        waitForSearch();
+    }
+
+    private void setOption(String[] tokens) {
+        final String name = getValue(tokens, "name");
+        final String value = getValue(tokens, "value");
+
+        try {
+            switch (name.toLowerCase()) {
+                case "hash" ->
+                    table.resize(Math.clamp(Integer.parseInt(value), 1, MAX_HASH_MB));
+                case "threads" ->
+                    search = new ParallelSearch(table, Math.clamp(Integer.parseInt(value), 1, MAX_THREADS));
+                case "ownbook" ->
+                    ownBook = Boolean.parseBoolean(value);
+                case "bookfile" ->
+                    setBook(value);
+                default ->
+                    send("info string Unknown option: " + name);
+            }
+        } catch (NumberFormatException e) {
+            send("info string Invalid value for " + name + ": " + value);
+        }
+    }
+
+    private void setBook(String path) {
+        if (book != null) {
+            book.close();
+            book = null;
+        }
+
+        if (path.isEmpty() || path.equals("<empty>")) {
+            return;
+        }
+
+        try {
+            book = new PolyglotBook(Path.of(path));
+        } catch (IOException | RuntimeException e) {
+            send("info string Can't open book " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets up the position on a board of its own, so an invalid FEN or an
+     * illegal move leaves the current position alone
+     */
+    private void setPosition(String[] tokens) {
+        final Board position;
+        int index = 1;
+
+        if (tokens.length > 1 && tokens[1].equals("startpos")) {
+            position = new Board(Board.START_FEN);
+            index = 2;
+        } else if (tokens.length > 1 && tokens[1].equals("fen")) {
+            final StringBuilder fen = new StringBuilder();
+
+            for (index = 2; index < tokens.length && !tokens[index].equals("moves"); index++) {
+                fen.append(tokens[index]).append(' ');
+            }
+
+            // Some GUIs leave out the move counters
+            if (index == 6) {
+                fen.append("0 1");
+            }
+
+            try {
+                position = new Board(fen.toString().trim());
+            } catch (IllegalArgumentException e) {
+                send("info string " + e.getMessage());
+                return;
+            }
+        } else {
+            send("info string Expected startpos or fen");
+            return;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            for (index++; index < tokens.length; index++) {
+                final int move = parseMove(position, tokens[index]);
+
+                if (move == PackedMove.NONE) {
+                    send("info string Illegal move: " + tokens[index]);
+                    return;
+                }
+
+                position.makeMove(move);
+            }
+        }
+
+        board = position;
+    }
+
+    private int parseMove(Board position, String notation) {
+        position.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toString(moves.get(i)).equals(notation)) {
+                return moves.get(i);
+            }
+        }
+
+        return PackedMove.NONE;
+    }
+
+    private void go(String[] tokens) {
+        final boolean infinite = hasToken(tokens, "infinite");
+
+        // Book moves are played without searching, but analysis still searches
+        if (ownBook && book != null && !infinite) {
+            final int bookMove = book.getWeightedMove(board, random);
+
+            if (bookMove != PackedMove.NONE) {
+                send("info string Book move");
+                send("bestmove " + PackedMove.toString(bookMove));
+                return;
+            }
+        }
+
+        final SearchLimits limits = getLimits(tokens);
+        final Board searchBoard = new Board(board);
+        final ParallelSearch search = this.search;
+        final AtomicBoolean stopFlag = new AtomicBoolean();
+        final CountDownLatch stopSignal = new CountDownLatch(1);
+
+        this.stopFlag = stopFlag;
+        this.stopSignal = stopSignal;
+        searchThread = new Thread(() -> {
+            final SearchInfo result = search.search(searchBoard, limits, info -> send("info " + info), stopFlag);
+
+            // An infinite search may only report its move after being stopped
+            if (infinite) {
+                try {
+                    stopSignal.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            send("bestmove " + (result.bestMove() == PackedMove.NONE ? "0000" : PackedMove.toString(result.bestMove())));
+        }, "uci-search");
+
+        searchThread.start();
+    }
+
+    private SearchLimits getLimits(String[] tokens) {
+        if (hasToken(tokens, "infinite")) {
+            return SearchLimits.infinite();
+        }
+
+        final int depth = (int) getLong(tokens, "depth");
+        final long nodes = getLong(tokens, "nodes");
+        long timeMillis = getLong(tokens, "movetime");
+
+        final boolean isWhite = Piece.isWhite(board.activeColor);
+        final long remaining = getLong(tokens, isWhite ? "wtime" : "btime");
+
+        if (timeMillis == 0 && remaining > 0) {
+            final long increment = getLong(tokens, isWhite ? "winc" : "binc");
+            final long movesToGo = getLong(tokens, "movestogo");
+
+            timeMillis = SearchLimits.moveTime(remaining, increment, movesToGo);
+        }
+
+        return new SearchLimits(depth, timeMillis == 0 ? 0 : Math.max(1, timeMillis), nodes);
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static boolean hasToken(String[] tokens, String token) {
+        for (String t : tokens) {
+            if (t.equals(token)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number following the token, or 0 if it is missing
+     */
+    private static long getLong(String[] tokens, String token) {
+        for (int i = 0; i < tokens.length - 1; i++) {
+            if (tokens[i].equals(token)) {
+                try {
+                    return Long.parseLong(tokens[i + 1]);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return the words between the token and the next setoption keyword
+     */
+    private static String getValue(String[] tokens, String token) {
+        final StringBuilder result = new StringBuilder();
+        boolean found = false;
+
+        for (String t : tokens) {
+            if (t.equals("name") || t.equals("value")) {
+                found = t.equals(token);
+            } else if (found) {
+                result.append(result.isEmpty() ? "" : " ").append(t);
+            }
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package jchess.util;
+
+/**
+ * Times a long running job and paces its progress lines to about one a
+ * second
+ */
+public final class ProgressClock {
+
+    private static final long INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long start = System.nanoTime();
+    private long lastProgress = start;
+
+    /**
+     * @return true if a progress line is due, at most once per interval
+     */
+    public boolean isDue() {
+        final long now = System.nanoTime();
+
+        if (now - lastProgress < INTERVAL_NANOS) {
+            return false;
+        }
+
+        lastProgress = now;
+        return true;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - start;
+    }
+}
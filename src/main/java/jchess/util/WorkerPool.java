@@ -0,0 +1,110 @@
+package jchess.util;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A fixed pool of threads for batch jobs, each thread with a worker of its
+ * own that is reused for every task the thread runs, e.g. a board and a
+ * transposition table.
+ *
+ * The caller submits tasks and takes their results back in submission
+ * order. At most a few tasks per thread are in flight, so memory use
+ * doesn't depend on the number of tasks: once {@link #isFull()}, the caller
+ * takes the oldest result before submitting more. A pool is used from one
+ * thread only, and must be {@link #shutdown() shut down} when done.
+ *
+ * @param <W> the worker of a pool thread
+ * @param <R> the result of a task
+ */
+public final class WorkerPool<W, R> {
+
+    private final ExecutorService executor;
+    private final ThreadLocal<W> worker;
+    private final Queue<W> workers = new ConcurrentLinkedQueue<>();
+    private final Consumer<W> closeWorker;
+    private final ArrayDeque<Future<R>> inFlight = new ArrayDeque<>();
+    private final int maxInFlight;
+
+    public WorkerPool(int threads, int inFlightPerThread, Supplier<W> newWorker) {
+        this(threads, inFlightPerThread, newWorker, worker -> {
+        });
+    }
+
+    /**
+     * @param newWorker creates the worker of a pool thread, on that thread
+     * @param closeWorker releases a worker on {@link #shutdown()}
+     */
+    public WorkerPool(int threads, int inFlightPerThread, Supplier<W> newWorker, Consumer<W> closeWorker) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.worker = ThreadLocal.withInitial(() -> {
+            final W created = newWorker.get();
+            workers.add(created);
+            return created;
+        });
+        this.closeWorker = closeWorker;
+        this.maxInFlight = threads * inFlightPerThread;
+    }
+
+    /**
+     * Runs a task on the worker of some pool thread
+     */
+    public void submit(Function<W, R> task) {
+        inFlight.add(executor.submit(() -> task.apply(worker.get())));
+    }
+
+    /**
+     * @return whether the oldest result should be taken before submitting
+     * more tasks
+     */
+    public boolean isFull() {
+        return inFlight.size() >= maxInFlight;
+    }
+
+    /**
+     * @return whether no task is in flight
+     */
+    public boolean isEmpty() {
+        return inFlight.isEmpty();
+    }
+
+    /**
+     * Waits for the oldest task in flight
+     *
+     * @return its result
+     * @throws IllegalStateException if the task failed
+     */
+    public R take() throws InterruptedException {
+        try {
+            return inFlight.poll().get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Task failed", e.getCause());
+        }
+    }
+
+    /**
+     * Interrupts the tasks still in flight, waits for the threads to finish
+     * and closes the workers
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        for (W created : workers) {
+            closeWorker.accept(created);
+        }
+    }
+}
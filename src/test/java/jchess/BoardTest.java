@@ -1,9 +1,13 @@
 package jchess;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public class BoardTest {
 
     @Test
@@ -55,12 +59,345 @@ public class BoardTest {
         assertEquals(46, singleDepthPerft(board));
     }
 
-    private int singleDepthPerft(Board board) {
-        int total = 0;
-        for (int i = 0; i < 64; i++) {
-            long moves = board.generateMovesFor(new Square(i));
-            total += Long.bitCount(moves);
+    @Test
+    @Category(PerftTests.class)
+    public void attackersTo_findsEveryAttacker() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+        // The f3 queen is blocked by the e4 pawn, so only the pawn and c3 knight defend d5
+        assertEquals(squares("e6", "f6", "b6"), board.attackersTo(Notation.toIndex("d5"), Piece.BLACK));
+        assertEquals(squares("e4", "c3"), board.attackersTo(Notation.toIndex("d5"), Piece.WHITE));
+        assertEquals(false, board.isKingInCheck(Piece.WHITE));
+        assertEquals(true, board.isSquareAttacked(Notation.toIndex("g2"), Piece.BLACK));
+
+        Board check = new Board("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        assertEquals(true, check.isKingInCheck(Piece.WHITE));
+        assertEquals(squares("h4"), check.attackersTo(Notation.toIndex("e1"), Piece.BLACK));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void staticExchange_playsOutCapturesWithXRays() {
+        // Rook takes an undefended pawn
+        Board board = new Board("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1");
+        assertEquals(100, board.staticExchange(board.findMove(move("e1", "e5"))));
+
+        // Knight takes a defended pawn, and the queens only join the
+        // exchange by x-ray through the rook and bishop in front of them
+        board = new Board("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1");
+        assertEquals(-220, board.staticExchange(board.findMove(move("d3", "e5"))));
+
+        // The queen can't take a pawn defended by a pawn
+        board = new Board("4k3/8/3p4/4p3/8/8/8/4QK2 w - - 0 1");
+        assertEquals(-800, board.staticExchange(board.findMove(move("e1", "e5"))));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void loadFen_rejectsInvalidFen() {
+        final String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        Board board = new Board(fen);
+
+        for (String invalid : new String[]{
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R/8 w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K3R w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPP/R3K2R w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3Q2R w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2X w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R x KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KKkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq e3 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - x 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 0",
+            "4k2P/8/8/8/8/8/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/p3K3 b - - 0 1",
+            "4k3/8/8/8/8/8/4R3/4K3 w - - 0 1",
+            "4k3/8/8/8/8/5n2/8/4K3 b - - 0 1",
+            "4k3/8/8/3Pn3/8/8/8/4K3 w - e6 0 1",
+            "4k3/8/4n3/3Pp3/8/8/8/4K3 w - e6 0 1",
+            "4k3/4n3/8/3Pp3/8/8/8/4K3 w - e6 0 1",
+            "4k3/8/8/8/3pN3/8/8/4K3 b - e3 0 1"
+        }) {
+            try {
+                board.loadFen(invalid);
+                fail("Expected " + invalid + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertEquals(fen, board.toFen());
+            }
+        }
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void loadFen_readsSlicesAndWritesBuffers() {
+        final String fen = "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2";
+        final byte[] line = ("id 7\t" + fen + "\t; comment").getBytes(StandardCharsets.US_ASCII);
+
+        Board board = new Board();
+        board.loadFen(line, 5, fen.length());
+        assertEquals(fen, board.toFen());
+
+        board.loadFen("  " + fen + "  ", 2, fen.length() + 2);
+        assertEquals(fen, board.appendFen(new StringBuilder("fen ")).substring(4));
+
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        buffer.put((byte) '>');
+        board.writeFen(buffer);
+        assertEquals(">" + fen, new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void writeBinary_roundTrips() {
+        for (String fen : new String[]{
+            "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+        }) {
+            assertBinaryRoundTrips(new Board(fen), new Board(), ByteBuffer.allocate(Board.BINARY_SIZE + 3), 2);
+        }
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void loadBinary_rejectsInvalidPositions() {
+        final String fen = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+        ByteBuffer buffer = ByteBuffer.allocate(Board.BINARY_SIZE);
+        Board board = new Board(fen);
+        board.writeBinary(buffer, 0);
+
+        // The first piece in square order, the pawn on e2, gets an invalid type
+        buffer.put(8, (byte) (buffer.get(8) | 0x7));
+        assertRejectsBinary(board, buffer);
+        assertEquals(fen, board.toFen());
+
+        // Clearing a1 leaves one square for the two pieces, so one king is lost
+        new Board("k7/8/8/8/8/8/8/K7 w - - 0 1").writeBinary(buffer, 0);
+        buffer.put(0, (byte) 0);
+        assertRejectsBinary(board, buffer);
+        assertEquals(fen, board.toFen());
+
+        // Moving the pawn from h2 to h1 keeps the piece order
+        new Board("4k3/8/8/8/8/8/7P/4K3 w - - 0 1").writeBinary(buffer, 0);
+        buffer.put(0, (byte) (buffer.get(0) | 0x80));
+        buffer.put(1, (byte) (buffer.get(1) & 0x7F));
+        assertRejectsBinary(board, buffer);
+        assertEquals(fen, board.toFen());
+
+        // Handing the move to white leaves black in check
+        new Board("4k3/8/8/8/8/8/4R3/4K3 b - - 0 1").writeBinary(buffer, 0);
+        buffer.put(24, (byte) (buffer.get(24) & ~1));
+        assertRejectsBinary(board, buffer);
+        assertEquals(fen, board.toFen());
+
+        // An en passant square on e4 with white to move
+        new Board("4k3/8/8/8/4P3/8/8/4K3 w - - 0 1").writeBinary(buffer, 0);
+        buffer.put(25, (byte) (28 + 1));
+        assertRejectsBinary(board, buffer);
+        assertEquals(fen, board.toFen());
+
+        // An en passant square on e6 with a knight in front of it
+        new Board("4k3/8/8/3Pn3/8/8/8/4K3 w - - 0 1").writeBinary(buffer, 0);
+        buffer.put(25, (byte) (44 + 1));
+        assertRejectsBinary(board, buffer);
+        assertEquals(fen, board.toFen());
+    }
+
+    private void assertRejectsBinary(Board board, ByteBuffer buffer) {
+        try {
+            board.loadBinary(buffer, 0);
+            fail("Expected the binary position to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private void assertBinaryRoundTrips(Board board, Board loaded, ByteBuffer buffer, int depth) {
+        board.writeBinary(buffer, 3);
+        loaded.loadBinary(buffer, 3);
+
+        assertEquals(board.toFen(), loaded.toFen());
+        assertEquals(board.hash(), loaded.hash());
+        assertEquals(board.evaluate(), loaded.evaluate());
+        assertEquals(0, buffer.position());
+
+        if (depth == 0) {
+            return;
+        }
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            assertBinaryRoundTrips(board, loaded, buffer, depth - 1);
+            board.unmakeMove();
+        }
+    }
+
+    private Move move(String from, String to) {
+        return new Move(new Square(Notation.toIndex(from)), new Square(Notation.toIndex(to)));
+    }
+
+    private long squares(String... notations) {
+        long result = 0L;
+        for (String notation : notations) {
+            result |= Bits.oneAt(Notation.toIndex(notation));
+        }
+        return result;
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void unmakeMove_restoresPosition() {
+        for (String fen : new String[]{
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+        }) {
+            Board board = new Board(fen);
+            assertUnmakeRestores(board, 2);
+            assertEquals(fen, board.toFen());
+        }
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void hash_isUpdatedIncrementally() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertHashMatchesFen(board, 3);
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void evaluate_isUpdatedIncrementally() {
+        // Promotions with captures change every total at once
+        Board board = new Board("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        assertEvaluationMatchesFen(board, 3);
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void evaluate_isSymmetric() {
+        assertEquals(0, new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1").evaluate());
+        assertEquals(
+                new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1").evaluate(),
+                new Board("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1").evaluate()
+        );
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void noisyAndQuietMoves_partitionLegalMoves() {
+        for (String fen : new String[]{
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+        }) {
+            assertMovesArePartitioned(new Board(fen), 2);
+        }
+    }
+
+    private void assertMovesArePartitioned(Board board, int depth) {
+        MoveList moves = new MoveList();
+        MoveList noisy = new MoveList();
+        MoveList quiet = new MoveList();
+        board.generateLegalMoves(moves);
+        board.generateNoisyMoves(noisy);
+        board.generateQuietMoves(quiet);
+
+        assertEquals(moves.size(), noisy.size() + quiet.size());
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final boolean isNoisy = PackedMove.isCapture(move) || PackedMove.isPromotion(move);
+
+            assertEquals(isNoisy, noisy.contains(move));
+            assertEquals(!isNoisy, quiet.contains(move));
+            assertEquals(true, board.isLegalMove(move));
+
+            if (depth > 1) {
+                board.makeMove(move);
+                assertMovesArePartitioned(board, depth - 1);
+                board.unmakeMove();
+            }
         }
-        return total;
+    }
+
+    private void assertEvaluationMatchesFen(Board board, int depth) {
+        assertEquals(new Board(board.toFen()).evaluate(), board.evaluate());
+
+        if (depth == 0) {
+            return;
+        }
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final int before = board.evaluate();
+
+            board.makeMove(moves.get(i));
+            assertEvaluationMatchesFen(board, depth - 1);
+            board.unmakeMove();
+
+            assertEquals(before, board.evaluate());
+        }
+    }
+
+    private void assertHashMatchesFen(Board board, int depth) {
+        assertEquals(new Board(board.toFen()).hash(), board.hash());
+
+        if (depth == 0) {
+            return;
+        }
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long before = board.hash();
+
+            board.makeMove(moves.get(i));
+            assertHashMatchesFen(board, depth - 1);
+            board.unmakeMove();
+
+            assertEquals(before, board.hash());
+        }
+    }
+
+    private void assertUnmakeRestores(Board board, int depth) {
+        if (depth == 0) {
+            return;
+        }
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            final String before = board.toFen();
+            final Move lastMove = board.getLastMove();
+
+            board.makeMove(moves.get(i));
+            assertUnmakeRestores(board, depth - 1);
+            board.unmakeMove();
+
+            assertEquals(before, board.toFen());
+            assertEquals(lastMove, board.getLastMove());
+        }
+    }
+
+    private int singleDepthPerft(Board board) {
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        return moves.size();
     }
 }
@@ -0,0 +1,5 @@
+package jchess;
+
+// Junit group for perft runs that take minutes
+public interface DeepPerftTests {
+}
@@ -0,0 +1,5 @@
+package jchess;
+
+// Junit group for search and evaluation
+public interface EngineTests {
+}
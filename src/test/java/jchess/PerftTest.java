@@ -0,0 +1,136 @@
+package jchess;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Node counts from https://www.chessprogramming.org/Perft_Results
+ */
+public class PerftTest {
+
+    private static final String POSITION_1 = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String POSITION_2 = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4A = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_4B = "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position1() {
+        assertEquals(197281, perft(POSITION_1, 4));
+        assertEquals(4865609, perft(POSITION_1, 5));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position2() {
+        assertEquals(4085603, perft(POSITION_2, 4));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position3() {
+        assertEquals(43238, perft(POSITION_3, 4));
+        assertEquals(674624, perft(POSITION_3, 5));
+        assertEquals(11030083, perft(POSITION_3, 6));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position4a() {
+        assertEquals(422333, perft(POSITION_4A, 4));
+        assertEquals(15833292, perft(POSITION_4A, 5));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position4b() {
+        assertEquals(422333, perft(POSITION_4B, 4));
+        assertEquals(15833292, perft(POSITION_4B, 5));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position5() {
+        assertEquals(2103487, perft(POSITION_5, 4));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void perft_position6() {
+        assertEquals(3894594, perft(POSITION_6, 4));
+    }
+
+    @Test
+    @Category(DeepPerftTests.class)
+    public void perft_position1_deep() {
+        assertEquals(119060324, perft(POSITION_1, 6));
+    }
+
+    @Test
+    @Category(DeepPerftTests.class)
+    public void perft_position2_deep() {
+        assertEquals(193690690, perft(POSITION_2, 5));
+        assertEquals(8031647685L, perft(POSITION_2, 6));
+    }
+
+    @Test
+    @Category(DeepPerftTests.class)
+    public void perft_position4_deep() {
+        assertEquals(706045033, perft(POSITION_4A, 6));
+        assertEquals(706045033, perft(POSITION_4B, 6));
+    }
+
+    @Test
+    @Category(DeepPerftTests.class)
+    public void perft_position5_deep() {
+        assertEquals(89941194, perft(POSITION_5, 5));
+        assertEquals(3048196529L, perft(POSITION_5, 6));
+    }
+
+    @Test
+    @Category(DeepPerftTests.class)
+    public void perft_position6_deep() {
+        assertEquals(164075551, perft(POSITION_6, 5));
+        assertEquals(6923051137L, perft(POSITION_6, 6));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void divide_sumsToPerft() {
+        Board board = new Board(POSITION_2);
+        PerftResult result = new Perft(board).divide(3);
+
+        assertEquals(48, result.divide().size());
+        assertEquals(97862, result.nodes());
+        assertEquals(result.nodes(), result.divide().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(POSITION_2, board.toFen());
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void parallelPerft_matchesSequential() {
+        Board board = new Board(POSITION_2);
+        PerftResult sequential = new Perft(board).divide(4);
+        PerftResult parallel = new ParallelPerft(4, 2).divide(board, 4);
+
+        assertEquals(sequential.divide(), parallel.divide());
+        assertEquals(4085603, new ParallelPerft(4).run(board, 4).nodes());
+        assertEquals(POSITION_2, board.toFen());
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void cachedPerft_matchesUncached() {
+        assertEquals(4085603, new Perft(new Board(POSITION_2), 16).perft(4));
+        assertEquals(11030083, new Perft(new Board(POSITION_3), 16).perft(6));
+        assertEquals(15833292, new Perft(new Board(POSITION_4A), 1).perft(5));
+    }
+
+    private long perft(String fen, int depth) {
+        return new Perft(new Board(fen)).perft(depth);
+    }
+}
@@ -0,0 +1,104 @@
+package jchess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+public class SanTest {
+
+    private final MoveList moves = new MoveList();
+
+    @Test
+    @Category(PerftTests.class)
+    public void parse_resolvesMoves() {
+        final Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+        assertEquals("e5f7", parse(board, "Nxf7"));
+        assertEquals("e5f7", parse(board, "Nxf7+!?"));
+        assertEquals("c3b5", parse(board, "Nb5"));
+        assertEquals("d5e6", parse(board, "dxe6"));
+        assertEquals("g2h3", parse(board, "gxh3"));
+        assertEquals("a2a4", parse(board, "a4"));
+        assertEquals("e1g1", parse(board, "O-O"));
+        assertEquals("e1c1", parse(board, "0-0-0"));
+        assertEquals("f3f6", parse(board, "Qxf6"));
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void parse_disambiguates() {
+        // Knights on b1 and f3 both reach d2, rooks on a1 and a5 both reach a3
+        final Board board = new Board("4k3/8/8/R7/8/8/8/RN2KN2 w - - 0 1");
+
+        assertEquals("b1d2", parse(board, "Nbd2"));
+        assertEquals("f1d2", parse(board, "Nfd2"));
+        assertEquals("a1a3", parse(board, "R1a3"));
+        assertEquals("a5a3", parse(board, "R5a3"));
+        assertEquals("a5a3", parse(board, "Ra5a3"));
+
+        assertRejects(board, "Nd2", "ambiguous");
+        assertRejects(board, "Ra3", "ambiguous");
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void parse_handlesPromotionsAndEnPassant() {
+        final Board board = new Board("1n2k3/P7/8/3pP3/8/8/8/4K3 w - d6 0 1");
+
+        assertEquals("a7a8q", parse(board, "a8=Q"));
+        assertEquals("a7a8n", parse(board, "a8N"));
+        assertEquals("a7b8r", parse(board, "axb8=R+"));
+        assertEquals("e5d6", parse(board, "exd6"));
+
+        assertRejects(board, "a8", "missing promotion piece");
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void parse_rejectsInvalidMoves() {
+        final Board board = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+
+        assertRejects(board, "e5", "illegal");
+        assertRejects(board, "Nc4", "illegal");
+        assertRejects(board, "O-O", "illegal");
+        assertRejects(board, "Ke2", "illegal");
+        assertRejects(board, "Nf", "no target square");
+        assertRejects(board, "", "no target square");
+        assertRejects(board, "Nxxf3", "unexpected 'x'");
+        assertRejects(board, "Ngz1f3", "unexpected 'z'");
+    }
+
+    @Test
+    @Category(PerftTests.class)
+    public void toString_formatsMoves() {
+        assertFormats("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "Nxf7", "Nb5", "dxe6", "gxh3", "a4", "O-O", "O-O-O", "Qxf6", "Bxa6");
+        assertFormats("4k3/8/8/R7/8/8/8/RN2KN2 w - - 0 1", "Nbd2", "Nfd2", "R1a3", "R5a3", "Ra8+");
+        assertFormats("1n2k3/P7/8/3pP3/8/8/8/4K3 w - d6 0 1", "a8=Q", "a8=N", "axb8=R+", "exd6");
+        // Queens on a1, a3 and c1 all reach c3, so Qa1 needs file and rank
+        assertFormats("4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1", "Qa1c3", "Q3c3", "Qcc3", "Qa1b2");
+    }
+
+    private void assertFormats(String fen, String... sans) {
+        final Board board = new Board(fen);
+
+        for (String san : sans) {
+            assertEquals(san, San.toString(board, San.parse(board, san, moves), moves));
+            assertEquals(fen, board.toFen());
+        }
+    }
+
+    private String parse(Board board, String san) {
+        return PackedMove.toString(San.parse(board, san, moves));
+    }
+
+    private void assertRejects(Board board, String san, String reason) {
+        try {
+            San.parse(board, san, moves);
+            fail("Expected " + san + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid SAN (" + reason + "): [" + san + "]", e.getMessage());
+        }
+    }
+}
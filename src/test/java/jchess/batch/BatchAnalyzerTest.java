@@ -0,0 +1,90 @@
+package jchess.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jchess.EngineTests;
+import jchess.engine.SearchLimits;
+
+public class BatchAnalyzerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @Category(EngineTests.class)
+    public void run_writesResultsInInputOrder() throws IOException, InterruptedException {
+        final Path input = folder.newFile("positions.epd").toPath();
+        final Path output = folder.newFile("results.tsv").toPath();
+
+        Files.writeString(input, String.join("\n",
+                "# Comments and empty lines are skipped",
+                "6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - bm Ra8#; id \"mate\";",
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "8/8/8/8/8/8/8/8 w - -",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+        ));
+
+        final BatchSummary summary = new BatchAnalyzer(2, SearchLimits.depth(3), 1).run(input, output, null);
+        final List<String> lines = Files.readAllLines(output);
+
+        assertEquals(4, summary.positions());
+        assertEquals(1, summary.errors());
+        assertEquals(4, lines.size());
+        assertEquals("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1\ta1a8\tmate 1\t1\t", lines.get(0).replaceAll("\\d+$", ""));
+        assertTrue(lines.get(1).startsWith("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\t"));
+        assertTrue(lines.get(2).startsWith("8/8/8/8/8/8/8/8 w - - 0 1\terror "));
+        assertTrue(lines.get(3).startsWith("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1\t"));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void run_isIndependentOfThreadCount() throws IOException, InterruptedException {
+        final Path input = folder.newFile("positions.fen").toPath();
+        final Path single = folder.newFile("single.tsv").toPath();
+        final Path parallel = folder.newFile("parallel.tsv").toPath();
+
+        // Related positions, so a table kept between them would change the results
+        Files.writeString(input, String.join("\n",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/4P3/p1N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 2",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2"
+        ));
+
+        new BatchAnalyzer(1, SearchLimits.depth(5), 1).run(input, single, null);
+        new BatchAnalyzer(2, SearchLimits.depth(5), 1).run(input, parallel, null);
+
+        assertEquals(Files.readAllLines(single), Files.readAllLines(parallel));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void readLine_handlesLineEndings() throws IOException {
+        final Path input = folder.newFile("lines.txt").toPath();
+        Files.write(input, "first\r\nsecond\n\nlast".getBytes(StandardCharsets.US_ASCII));
+
+        try (MappedLineReader reader = new MappedLineReader(input)) {
+            assertEquals("first", reader.readLine());
+            assertEquals("second", reader.readLine());
+            assertEquals("", reader.readLine());
+            assertEquals("last", reader.readLine());
+            assertNull(reader.readLine());
+            assertEquals(reader.getSize(), reader.getPosition());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package jchess.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.MoveList;
+
+public class PositionFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @Category(EngineTests.class)
+    public void reader_readsWhatWriterWrote() throws IOException {
+        final Path file = folder.newFile("positions.bin").toPath();
+        final List<String> fens = new ArrayList<>();
+        final Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        final MoveList moves = new MoveList();
+
+        try (PositionFileWriter writer = new PositionFileWriter(file)) {
+            board.generateLegalMoves(moves);
+
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                writer.write(board);
+                fens.add(board.toFen());
+                board.unmakeMove();
+            }
+
+            assertEquals(fens.size(), writer.getCount());
+        }
+
+        assertEquals((long) fens.size() * Board.BINARY_SIZE, file.toFile().length());
+
+        try (PositionFileReader reader = new PositionFileReader(file)) {
+            assertEquals(fens.size(), reader.size());
+
+            for (int i = 0; i < fens.size(); i++) {
+                assertTrue(reader.next(board));
+                assertEquals(fens.get(i), board.toFen());
+            }
+
+            assertFalse(reader.next(board));
+
+            reader.read(7, board);
+            assertEquals(fens.get(7), board.toFen());
+
+            reader.seek(fens.size() - 1);
+            assertTrue(reader.next(board));
+            assertEquals(fens.getLast(), board.toFen());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    @Category(EngineTests.class)
+    public void reader_rejectsTruncatedFile() throws IOException {
+        final Path file = folder.newFile("truncated.bin").toPath();
+        Files.write(file, new byte[Board.BINARY_SIZE + 1]);
+
+        new PositionFileReader(file).close();
+    }
+}
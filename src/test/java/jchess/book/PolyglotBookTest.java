@@ -0,0 +1,143 @@
+package jchess.book;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.Notation;
+import jchess.PackedMove;
+
+public class PolyglotBookTest {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String CASTLING_FEN = "r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w KQkq - 0 1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Any table works for books written with the same table
+    private final PolyglotKeys keys = new PolyglotKeys(new SplittableRandom(781).longs(PolyglotKeys.SIZE).toArray());
+
+    @Test
+    @Category(EngineTests.class)
+    public void getBestMove_findsHighestWeightedLegalMove() throws IOException {
+        final Board board = new Board(START_FEN);
+
+        try (PolyglotBook book = new PolyglotBook(writeBook(), keys)) {
+            assertEquals(5, book.size());
+            assertEquals("e2e4", PackedMove.toString(book.getBestMove(board)));
+
+            // Castling is stored as the king capturing its rook
+            board.loadFen(CASTLING_FEN);
+            assertEquals(PackedMove.QUEEN_CASTLE, PackedMove.getFlags(book.getBestMove(board)));
+
+            board.loadFen("8/8/8/8/8/8/8/K6k w - - 0 1");
+            assertEquals(PackedMove.NONE, book.getBestMove(board));
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void getWeightedMove_followsWeights() throws IOException {
+        final Board board = new Board(START_FEN);
+        final SplittableRandom random = new SplittableRandom(1);
+        int e4 = 0;
+
+        try (PolyglotBook book = new PolyglotBook(writeBook(), keys)) {
+            for (int i = 0; i < 1000; i++) {
+                final String move = PackedMove.toString(book.getWeightedMove(board, random));
+
+                if (move.equals("e2e4")) {
+                    e4++;
+                } else {
+                    assertEquals("d2d4", move);
+                }
+            }
+        }
+
+        // Weights 3 and 1
+        assertEquals(750, e4, 50);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void key_onlyHashesCapturableEnPassant() {
+        assertEquals(
+                keys.key(new Board("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")),
+                keys.key(new Board("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1"))
+        );
+        assertNotEquals(
+                keys.key(new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")),
+                keys.key(new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3"))
+        );
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void standardKeys_matchFormatExamples() {
+        final PolyglotKeys standard = PolyglotKeys.standard();
+
+        assertEquals(0x463b96181691fc9cL, standard.key(new Board(START_FEN)));
+        assertEquals(0x823c9b50fd114196L,
+                standard.key(new Board("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+        assertEquals(0x0756b94461c50fb0L,
+                standard.key(new Board("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2")));
+        assertEquals(0x662fafb965db29d4L,
+                standard.key(new Board("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2")));
+        assertEquals(0x22a48b5a8e47ff78L,
+                standard.key(new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")));
+        assertEquals(0x652a607ca3f242c1L,
+                standard.key(new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3")));
+        assertEquals(0x00fdd303c946bdd9L,
+                standard.key(new Board("rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4")));
+        assertEquals(0x3c8123ea7b067637L,
+                standard.key(new Board("rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3")));
+        assertEquals(0x5c3f9b829b279560L,
+                standard.key(new Board("rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4")));
+    }
+
+    private Path writeBook() throws IOException {
+        final List<long[]> entries = new ArrayList<>();
+        final long start = keys.key(new Board(START_FEN));
+        final long castling = keys.key(new Board(CASTLING_FEN));
+
+        entries.add(new long[]{start, bookMove("e2", "e4"), 3});
+        entries.add(new long[]{start, bookMove("d2", "d4"), 1});
+        // Illegal in the position, as if another position had the same key
+        entries.add(new long[]{start, bookMove("e2", "e5"), 100});
+        entries.add(new long[]{castling, bookMove("e1", "a1"), 2});
+        entries.add(new long[]{castling, bookMove("e1", "h1"), 1});
+
+        entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+        final Path path = folder.newFile("book.bin").toPath();
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+                out.writeInt(0);
+            }
+        }
+
+        return path;
+    }
+
+    private static int bookMove(String from, String to) {
+        return (Notation.toIndex(from) << 6) | Notation.toIndex(to);
+    }
+}
@@ -0,0 +1,41 @@
+package jchess.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.PackedMove;
+
+public class ParallelSearchTest {
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_findsBackRankMate() {
+        try (TranspositionTable table = new TranspositionTable(4)) {
+            Board board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+            SearchInfo result = new ParallelSearch(table, 3).search(board, SearchLimits.depth(4), null);
+
+            assertEquals("a1a8", PackedMove.toString(result.bestMove()));
+            assertEquals(Search.MATE_SCORE - 1, result.score());
+            assertEquals("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", board.toFen());
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_stopsHelpersWhenDone() {
+        try (TranspositionTable table = new TranspositionTable(4)) {
+            Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            ParallelSearch search = new ParallelSearch(table, 3);
+            SearchInfo result = search.search(board, SearchLimits.time(200), null);
+
+            assertTrue(result.bestMove() != PackedMove.NONE);
+            assertEquals(search.getNodes(), result.nodes());
+            assertTrue(Thread.getAllStackTraces().keySet().stream()
+                    .noneMatch(thread -> thread.getName().startsWith("search-helper-")));
+        }
+    }
+}
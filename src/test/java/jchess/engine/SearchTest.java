@@ -0,0 +1,74 @@
+package jchess.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.PackedMove;
+
+public class SearchTest {
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_findsBackRankMate() {
+        Board board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        SearchInfo result = new Search(board).search(SearchLimits.depth(4), null);
+
+        assertEquals("a1a8", PackedMove.toString(result.bestMove()));
+        assertEquals(Search.MATE_SCORE - 1, result.score());
+        assertEquals("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", board.toFen());
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_winsHangingQueen() {
+        Board board = new Board("rnb1kbnr/pppp1ppp/8/4p1q1/3P4/8/PPP1PPPP/RNBQKBNR w KQkq - 1 3");
+        SearchInfo result = new Search(board).search(SearchLimits.depth(3), null);
+
+        assertEquals("c1g5", PackedMove.toString(result.bestMove()));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_respectsNodeLimit() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Search search = new Search(board);
+        SearchInfo result = search.search(SearchLimits.nodes(20000), null);
+
+        assertTrue(result.bestMove() != PackedMove.NONE);
+        assertTrue(search.getNodes() <= 20000);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_stopsWhenAsked() throws InterruptedException {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Search search = new Search(board);
+        AtomicBoolean stop = new AtomicBoolean();
+        SearchInfo[] result = new SearchInfo[1];
+
+        Thread thread = new Thread(() -> result[0] = search.search(SearchLimits.infinite(), null, stop));
+        thread.start();
+        Thread.sleep(200);
+        stop.set(true);
+        thread.join(5000);
+
+        assertTrue(!thread.isAlive());
+        assertTrue(result[0].bestMove() != PackedMove.NONE);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_keepsStopRequestedBeforeStart() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchInfo result = new Search(board).search(SearchLimits.infinite(), null, new AtomicBoolean(true));
+
+        assertEquals(1, result.depth());
+        assertTrue(result.bestMove() != PackedMove.NONE);
+    }
+}
@@ -0,0 +1,63 @@
+package jchess.engine;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.PackedMove;
+
+public class TranspositionTableTest {
+
+    @Test
+    @Category(EngineTests.class)
+    public void probe_returnsStoredEntry() {
+        try (TranspositionTable table = new TranspositionTable(1)) {
+            final int move = PackedMove.create(12, 28, PackedMove.DOUBLE_PAWN_PUSH);
+            table.store(0x1234_5678_9ABC_DEF0L, move, -250, 7, TranspositionTable.BOUND_UPPER);
+
+            final long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+
+            assertEquals(move, TranspositionTable.getMove(entry));
+            assertEquals(-250, TranspositionTable.getScore(entry));
+            assertEquals(7, TranspositionTable.getDepth(entry));
+            assertEquals(TranspositionTable.BOUND_UPPER, TranspositionTable.getBound(entry));
+            assertEquals(0L, table.probe(0x1234_5678_9ABC_DEF1L ^ (1L << 40)));
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void store_prefersDeeperEntries() {
+        try (TranspositionTable table = new TranspositionTable(1)) {
+            // Both keys map to the same slot
+            final long key = 0x10L;
+            final long otherKey = 0x10L | (1L << 60);
+
+            table.store(key, PackedMove.NONE, 10, 8, TranspositionTable.BOUND_EXACT);
+            table.store(otherKey, PackedMove.NONE, 20, 3, TranspositionTable.BOUND_EXACT);
+            assertEquals(10, TranspositionTable.getScore(table.probe(key)));
+            assertEquals(0L, table.probe(otherKey));
+
+            // Entries of an earlier search are always replaced
+            table.newSearch();
+            table.store(otherKey, PackedMove.NONE, 20, 3, TranspositionTable.BOUND_EXACT);
+            assertEquals(20, TranspositionTable.getScore(table.probe(otherKey)));
+            assertEquals(0L, table.probe(key));
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void search_withTableFindsSameMate() {
+        try (TranspositionTable table = new TranspositionTable(4)) {
+            Board board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+            SearchInfo result = new Search(board, table).search(SearchLimits.depth(4), null);
+
+            assertEquals("a1a8", PackedMove.toString(result.bestMove()));
+            assertEquals(Search.MATE_SCORE - 1, result.score());
+            assertEquals("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", board.toFen());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package jchess.explorer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.MoveList;
+import jchess.PackedMove;
+import jchess.pgn.PgnReader;
+
+public class PositionIndexTest {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    @Category(EngineTests.class)
+    public void build_countsMovesAndResults() throws IOException, InterruptedException {
+        final PositionIndex index = build(String.join("\n",
+                "1. e4 e5 2. Nf3 Nc6 1-0",
+                "1. e4 c5 2. Nf3 d6 0-1",
+                "1. d4 d5 2. c4 e6 1/2-1/2",
+                "1. Nf3 d5 2. d4 Nf6 1/2-1/2",
+                "1. e4 e5 2. Nc3 *",
+                "1. e4 e5 2. Ke3 1-0",
+                ""
+        ), 2);
+
+        final Board board = new Board(START_FEN);
+        final List<MoveStats> moves = index.lookup(board);
+
+        assertEquals(3, moves.size());
+        assertEquals(new MoveStats(move(board, "e2e4"), 1, 1, 0, 1), moves.get(0));
+        assertEquals(3, moves.get(0).games());
+
+        board.makeMove(move(board, "e2e4"));
+
+        assertEquals(List.of(
+                new MoveStats(move(board, "e7e5"), 1, 0, 0, 1),
+                new MoveStats(move(board, "c7c5"), 0, 1, 0, 0)
+        ), index.lookup(board));
+
+        // Moves past the ply limit aren't indexed
+        board.makeMove(move(board, "e7e5"));
+
+        assertEquals(List.of(), index.lookup(board));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void build_mergesTranspositions() throws IOException, InterruptedException {
+        final PositionIndex index = build(String.join("\n",
+                "1. Nf3 d5 2. d4 Nf6 1/2-1/2",
+                "1. d4 d5 2. Nf3 Nf6 0-1",
+                ""
+        ), 4);
+
+        final Board board = new Board("rnbqkbnr/ppp1pppp/8/3p4/3P4/5N2/PPP1PPPP/RNBQKB1R b KQkq - 1 2");
+
+        assertEquals(List.of(new MoveStats(move(board, "g8f6"), 0, 1, 1, 0)), index.lookup(board));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void add_growsAndMerges() {
+        final PositionIndex first = new PositionIndex();
+        final PositionIndex second = new PositionIndex(100_000);
+
+        for (int i = 0; i < 100_000; i++) {
+            first.add(i * 0x9E3779B97F4A7C15L, 1 + i % 1000, PositionIndex.WHITE_WINS);
+            second.add(i * 0x9E3779B97F4A7C15L, 1 + i % 1000, i % 2 == 0 ? PositionIndex.DRAWS : PositionIndex.UNFINISHED);
+        }
+
+        first.addAll(second);
+
+        assertEquals(100_000, first.size());
+        assertEquals(new MoveStats(9, 1, 0, 1, 0), first.get(8 * 0x9E3779B97F4A7C15L, 9));
+        assertEquals(new MoveStats(1000, 1, 0, 0, 1), first.get(99_999 * 0x9E3779B97F4A7C15L, 1000));
+        assertNull(first.get(8 * 0x9E3779B97F4A7C15L, 10));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void write_roundTripsThroughMappedFile() throws IOException, InterruptedException {
+        final Path path = folder.newFile("games.idx").toPath();
+        final PositionIndex built = build("1. e4 e5 1-0\n1. e4 c5 0-1\n1. d4 d5 *\n", 10);
+
+        built.write(path);
+
+        try (PositionIndex mapped = PositionIndex.open(path)) {
+            final Board board = new Board(START_FEN);
+
+            assertEquals(built.size(), mapped.size());
+            assertEquals(built.lookup(board), mapped.lookup(board));
+
+            board.makeMove(move(board, "e2e4"));
+
+            assertEquals(built.lookup(board), mapped.lookup(board));
+
+            try {
+                mapped.add(PositionIndex.key(board), move(board, "e7e5"), PositionIndex.DRAWS);
+                fail("Expected a mapped index to be read-only");
+            } catch (IllegalStateException e) {
+                assertEquals("Index is read-only", e.getMessage());
+            }
+        }
+    }
+
+    private static PositionIndex build(String pgn, int maxPly) throws IOException, InterruptedException {
+        try (PgnReader reader = new PgnReader(
+                Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.US_ASCII))))) {
+            return new PositionIndexBuilder(maxPly).build(reader, 2, null, null);
+        }
+    }
+
+    private static int move(Board board, String uci) {
+        final MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.toString(moves.get(i)).equals(uci)) {
+                return moves.get(i);
+            }
+        }
+
+        throw new AssertionError("No legal move " + uci);
+    }
+}
@@ -0,0 +1,149 @@
+package jchess.match;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.MoveList;
+import jchess.San;
+import jchess.engine.SearchLimits;
+import jchess.pgn.PgnError;
+import jchess.pgn.PgnReader;
+import jchess.pgn.PgnReplayer;
+import jchess.pgn.PgnSummary;
+
+public class MatchRunnerTest {
+
+    private final MoveList moves = new MoveList();
+
+    @Test
+    @Category(EngineTests.class)
+    public void termination_followsTheRules() {
+        assertEquals(Termination.CHECKMATE, termination("R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 1"));
+        assertEquals(Termination.STALEMATE, termination("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"));
+        assertEquals(Termination.FIFTY_MOVES, termination("4k3/8/8/8/8/8/8/R3K3 w - - 100 80"));
+        assertNull(termination("4k3/8/8/8/8/8/8/R3K3 w - - 99 80"));
+
+        // Checkmate on the hundredth half move still counts
+        assertEquals(Termination.CHECKMATE, termination("R5k1/5ppp/8/8/8/8/8/6K1 b - - 100 80"));
+
+        final Board board = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+
+        for (int i = 0; i < 2; i++) {
+            for (String san : new String[]{"Nf3", "Nf6", "Ng1", "Ng8"}) {
+                assertNull(Termination.of(board, moves));
+                board.makeMove(San.parse(board, san, moves));
+            }
+        }
+
+        assertEquals(Termination.REPETITION, Termination.of(board, moves));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void isInsufficientMaterial_findsDeadPositions() {
+        for (String fen : new String[]{
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/2B1K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/1N2K3 w - - 0 1",
+            "2b1k3/8/8/8/8/8/8/3BK3 w - - 0 1"
+        }) {
+            assertTrue(fen, Termination.isInsufficientMaterial(new Board(fen)));
+        }
+
+        for (String fen : new String[]{
+            "4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1",
+            "3bk3/8/8/8/8/8/8/3BK3 w - - 0 1",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/1N1BK3 w - - 0 1"
+        }) {
+            assertFalse(fen, Termination.isInsufficientMaterial(new Board(fen)));
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void timeControl_parsesSeconds() {
+        assertEquals(new TimeControl(10_000, 100), TimeControl.parse("10+0.1"));
+        assertEquals(new TimeControl(60_000, 0), TimeControl.parse("60"));
+        assertEquals("10+0.1", new TimeControl(10_000, 100).toString());
+        assertEquals("0.5", new TimeControl(500, 0).toString());
+
+        for (String invalid : new String[]{"", "+1", "ten", "0+1", "10+-1"}) {
+            try {
+                TimeControl.parse(invalid);
+                fail("Expected " + invalid + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Invalid time control: [" + invalid + "]", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void summary_computesEloWithErrorBars() {
+        final MatchSummary summary = new MatchSummary(60, 20, 20, 1_000_000, 2_000_000_000L);
+
+        assertEquals(0.7, summary.score(), 1e-9);
+        assertEquals(147.2, summary.eloDifference(), 0.1);
+        assertEquals(66.0, summary.eloError(), 0.1);
+        assertEquals(500_000, summary.nodesPerSecond());
+
+        assertEquals(0, new MatchSummary(10, 0, 10, 0, 0).eloDifference(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, new MatchSummary(10, 0, 0, 0, 0).eloDifference(), 0);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void run_playsGamesAndWritesPgn() throws IOException, InterruptedException {
+        final StringWriter pgn = new StringWriter();
+        final MatchRunner runner = new MatchRunner(
+                () -> new SearchPlayer("First", 1, SearchLimits.depth(2)),
+                () -> new SearchPlayer("Second", 1, SearchLimits.depth(2)),
+                new TimeControl(60_000, 0), 2
+        );
+
+        final MatchSummary summary = runner.run(List.of(
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "4k3/8/8/8/8/8/3QK3/8 b - - 0 1"
+        ), 4, pgn, null);
+
+        assertEquals(4, summary.games());
+        assertTrue(summary.nodes() > 0);
+
+        // Whoever has the queen mates the bare king
+        assertTrue(summary.wins() >= 1 && summary.losses() >= 1);
+
+        final List<PgnError> errors = new ArrayList<>();
+        final PgnSummary replayed;
+
+        try (PgnReader reader = new PgnReader(Channels.newChannel(
+                new ByteArrayInputStream(pgn.toString().getBytes(StandardCharsets.UTF_8))))) {
+            replayed = new PgnReplayer(1).run(reader, null, errors::add, null);
+        }
+
+        assertEquals(List.of(), errors);
+        assertEquals(4, replayed.games());
+        assertTrue(pgn.toString().contains("[FEN \"4k3/8/8/8/8/8/3QK3/8 b - - 0 1\"]\n"));
+        assertTrue(pgn.toString().contains("\n1... "));
+        assertTrue(pgn.toString().contains("{checkmate}"));
+    }
+
+    private Termination termination(String fen) {
+        return Termination.of(new Board(fen), moves);
+    }
+}
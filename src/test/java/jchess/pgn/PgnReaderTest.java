@@ -0,0 +1,134 @@
+package jchess.pgn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jchess.EngineTests;
+
+public class PgnReaderTest {
+
+    private static final String GAMES = String.join("\n",
+            "﻿[Event \"Comments and variations\"]",
+            "[White \"A \\\"quoted\\\" name\"]",
+            "[Result \"1-0\"]",
+            "",
+            "1. e4 {best by test} e5 (1... c5 2. Nf3 (2. c3) d6) 2. Nf3 $1 Nc6 3.Bb5 a6",
+            "; a line comment",
+            "% an escape line",
+            "4. Ba4 Nf6 5. O-O Be7 1-0",
+            "",
+            "[Event \"Illegal move\"]",
+            "",
+            "1. e4 e5 2. Ke3 1/2-1/2",
+            "",
+            "[Event \"Missing result\"]",
+            "",
+            "1. d4 d5",
+            "",
+            "[Event \"From a position\"]",
+            "[SetUp \"1\"]",
+            "[FEN \"4k3/8/8/8/8/8/4P3/4K3 b - - 0 1\"]",
+            "",
+            "1... Kd7 2. e4 Kc6 *",
+            "",
+            "[Event \"Invalid position\"]",
+            "[FEN \"4k3/8/8/8/8/8/8/8 w - - 0 1\"]",
+            "",
+            "1. e4 *",
+            "1. e4 e5 2. Nf3 Nc6 0-1",
+            ""
+    );
+
+    @Test
+    @Category(EngineTests.class)
+    public void next_readsTagsAndMainLine() throws IOException {
+        try (PgnReader reader = reader(GAMES)) {
+            final PgnGame first = reader.next();
+
+            assertEquals(1, first.getNumber());
+            assertEquals(1, first.getLine());
+            assertEquals("Comments and variations", first.getTag("Event"));
+            assertEquals("A \"quoted\" name", first.getTag("White"));
+            assertEquals(List.of("e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Ba4", "Nf6", "O-O", "Be7"), first.getMoves());
+            assertEquals("1-0", first.getResult());
+            assertNull(first.getError());
+
+            final PgnGame second = reader.next();
+
+            assertEquals(10, second.getLine());
+            assertEquals(List.of("e4", "e5", "Ke3"), second.getMoves());
+            assertEquals("1/2-1/2", second.getResult());
+
+            assertEquals("missing result", reader.next().getError());
+            assertEquals(List.of("Kd7", "e4", "Kc6"), reader.next().getMoves());
+            assertEquals("*", reader.next().getResult());
+
+            final PgnGame last = reader.next();
+
+            assertEquals(6, last.getNumber());
+            assertEquals(0, last.getTags().size());
+            assertEquals(4, last.getMoves().size());
+            assertEquals("0-1", last.getResult());
+
+            assertNull(reader.next());
+            assertEquals(GAMES.getBytes(StandardCharsets.UTF_8).length, reader.getBytesRead());
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void next_recoversFromMalformedGames() throws IOException {
+        try (PgnReader reader = reader(String.join("\n",
+                "[Event \"Unterminated",
+                "1. e4 *",
+                "[Event \"Unbalanced\"]",
+                "1. e4 } e5 *",
+                "[Event \"Unterminated comment\"]",
+                "1. e4 { e5 *",
+                ""
+        ))) {
+            assertEquals("unterminated tag value on line 1", reader.next().getError());
+            assertEquals("unbalanced '}'", reader.next().getError());
+            assertEquals("unterminated comment", reader.next().getError());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void run_replaysLegalGames() throws IOException, InterruptedException {
+        final List<PgnError> errors = new ArrayList<>();
+        final AtomicLong replayed = new AtomicLong();
+
+        try (PgnReader reader = reader(GAMES)) {
+            final PgnSummary summary = new PgnReplayer(2).run(reader, (game, board, move) -> {
+                replayed.incrementAndGet();
+            }, errors::add, null);
+
+            assertEquals(6, summary.games());
+            assertEquals(3, summary.errors());
+            assertEquals(17, summary.moves());
+            assertEquals(17, replayed.get());
+        }
+
+        assertEquals(3, errors.size());
+        assertEquals("Game 2 (line 10), ply 3 Ke3: Invalid SAN (illegal): [Ke3]", errors.get(0).toString());
+        assertEquals("Game 3 (line 14): missing result", errors.get(1).toString());
+        assertEquals(5, errors.get(2).game());
+        assertEquals(0, errors.get(2).ply());
+    }
+
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,190 @@
+package jchess.tablebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import jchess.Board;
+import jchess.EngineTests;
+import jchess.MoveList;
+
+public class TablebaseTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Tablebases tablebases = new Tablebases();
+
+    @BeforeClass
+    public static void generate() throws InterruptedException {
+        tablebases.generate("KQvK", 2);
+        tablebases.generate("KRvK", 2);
+        tablebases.generate("KPvK", 2);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void generate_includesPromotionTables() {
+        assertNotNull(tablebases.get("KBvK"));
+        assertNotNull(tablebases.get("KNvK"));
+        assertEquals(Tablebase.DRAW, tablebases.probe(new Board("8/8/8/3k4/8/8/2NK4/8 w - - 0 1")));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void generate_rejectsMoreThanFourPieces() throws InterruptedException {
+        for (String name : new String[]{"KQRvKP", "KQRBvK"}) {
+            try {
+                new Tablebases().generate(name, 1);
+                fail("Expected " + name + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void probe_knowsBasicEndgames() {
+        assertEquals(Tablebase.WIN, tablebases.probe(new Board("8/8/8/8/3k4/8/8/R3K3 w - - 0 1")));
+        assertEquals(Tablebase.LOSS, tablebases.probe(new Board("8/8/8/8/3k4/8/8/R3K3 b - - 0 1")));
+
+        // Queen en prise with black to move
+        assertEquals(Tablebase.DRAW, tablebases.probe(new Board("8/8/8/8/3k4/3Q4/8/4K3 b - - 0 1")));
+        // Stalemate
+        assertEquals(Tablebase.DRAW, tablebases.probe(new Board("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1")));
+
+        // King in front of its pawn on the sixth rank wins whoever moves,
+        // beside the pawn on the seventh it can only stalemate
+        assertEquals(Tablebase.WIN, tablebases.probe(new Board("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")));
+        assertEquals(Tablebase.LOSS, tablebases.probe(new Board("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")));
+        assertEquals(Tablebase.DRAW, tablebases.probe(new Board("4k3/4P3/3K4/8/8/8/8/8 w - - 0 1")));
+
+        // Rook pawns are drawn once the defender reaches the corner
+        assertEquals(Tablebase.DRAW, tablebases.probe(new Board("7k/8/8/8/8/7P/8/7K w - - 0 1")));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void probe_coversEveryKingAndPawnPosition() {
+        final Board board = new Board();
+        int positions = 0;
+        int wins = 0;
+        int draws = 0;
+
+        for (int whiteKing = 0; whiteKing < 64; whiteKing++) {
+            for (int pawn = 8; pawn < 56; pawn++) {
+                for (int blackKing = 0; blackKing < 64; blackKing++) {
+                    if (whiteKing == pawn || whiteKing == blackKing || pawn == blackKing) {
+                        continue;
+                    }
+
+                    try {
+                        board.loadFen(fen(whiteKing, pawn, blackKing));
+                    } catch (IllegalArgumentException e) {
+                        // Black is in check
+                        continue;
+                    }
+
+                    final int result = tablebases.probe(board);
+
+                    positions++;
+                    wins += result == Tablebase.WIN ? 1 : 0;
+                    draws += result == Tablebase.DRAW ? 1 : 0;
+                }
+            }
+        }
+
+        assertEquals(163_328, positions);
+        assertEquals(124_960, wins);
+        assertEquals(38_368, draws);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void probe_handlesSwappedColorsAndSymmetry() {
+        assertEquals(
+                tablebases.probe(new Board("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")),
+                tablebases.probe(new Board("8/8/8/8/4p3/4k3/8/4K3 w - - 0 1"))
+        );
+        assertEquals(
+                tablebases.probe(new Board("8/8/8/8/8/1k6/8/1K2Q3 b - - 0 1")),
+                tablebases.probe(new Board("1K2Q3/8/1k6/8/8/8/8/8 b - - 0 1"))
+        );
+        assertEquals(Tablebase.UNKNOWN, tablebases.probe(new Board("8/8/8/8/8/1k6/8/1K1RQ3 w - - 0 1")));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void probe_isConsistentWithMoves() {
+        // A won position has a move to a lost one, a lost position only moves to won ones
+        for (String fen : new String[]{
+            "8/8/8/8/3k4/8/8/R3K3 w - - 0 1",
+            "8/8/8/8/3k4/8/8/R3K3 b - - 0 1",
+            "8/8/8/2k5/8/8/2P5/2K5 w - - 0 1",
+            "8/8/8/2k5/8/8/2P5/2K5 b - - 0 1"
+        }) {
+            final Board board = new Board(fen);
+            final int result = tablebases.probe(board);
+            final MoveList moves = new MoveList();
+            int best = Tablebase.LOSS;
+
+            board.generateLegalMoves(moves);
+
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                best = Math.max(best, Tablebase.WIN + Tablebase.LOSS - tablebases.probe(board));
+                board.unmakeMove();
+            }
+
+            assertEquals(fen, best, result);
+        }
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void write_roundTrips() throws IOException {
+        final Path directory = folder.newFolder("tablebases").toPath();
+        tablebases.write(directory);
+
+        final Tablebases loaded = new Tablebases();
+        loaded.load(directory);
+
+        assertEquals(tablebases.getTablebases().size(), loaded.getTablebases().size());
+
+        for (String fen : new String[]{
+            "4k3/8/4K3/4P3/8/8/8/8 w - - 0 1",
+            "4k3/4P3/3K4/8/8/8/8/8 w - - 0 1",
+            "8/8/8/8/3k4/8/8/R3K3 b - - 0 1"
+        }) {
+            assertEquals(tablebases.probe(new Board(fen)), loaded.probe(new Board(fen)));
+        }
+    }
+
+    /**
+     * @return the FEN of white to move with a white king and pawn against
+     * the black king
+     */
+    private static String fen(int whiteKing, int pawn, int blackKing) {
+        final StringBuilder fen = new StringBuilder();
+
+        for (int rank = 7; rank >= 0; rank--) {
+            for (int file = 0; file < 8; file++) {
+                final int square = rank * 8 + file;
+                fen.append(square == whiteKing ? 'K' : square == pawn ? 'P' : square == blackKing ? 'k' : '1');
+            }
+
+            fen.append(rank > 0 ? "/" : " w - - 0 1");
+        }
+
+        return fen.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package jchess.uci;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import jchess.EngineTests;
+
+public class UciEngineTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final UciEngine engine = new UciEngine(
+            new BufferedReader(new StringReader("")), new PrintStream(output, true)
+    );
+
+    @Test
+    @Category(EngineTests.class)
+    public void handshake_listsOptions() {
+        engine.handle("uci");
+        engine.handle("isready");
+
+        assertTrue(output().contains("option name Hash type spin"));
+        assertTrue(output().contains("option name Threads type spin"));
+        assertTrue(output().contains("uciok\nreadyok\n"));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void go_searchesPositionAfterMoves() {
+        engine.handle("setoption name Threads value 2");
+        engine.handle("position fen 6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1 moves a1b1 g8h8 b1a1 h8g8");
+        engine.handle("go depth 3");
+        engine.waitForSearch();
+
+        assertTrue(output().contains("info depth 1 "));
+        assertTrue(output().contains("score mate 1"));
+        assertTrue(output().endsWith("bestmove a1a8\n"));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void go_infiniteAnswersWhileSearchingAndStops() {
+        engine.handle("position startpos moves e2e4");
+        engine.handle("go infinite");
+        engine.handle("isready");
+
+        assertTrue(output().contains("readyok"));
+        assertTrue(!output().contains("bestmove"));
+
+        engine.handle("stop");
+
+        assertTrue(output().contains("bestmove "));
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void stop_rightAfterGoIsNotLost() {
+        for (int i = 0; i < 20; i++) {
+            engine.handle("go infinite");
+            engine.handle("stop");
+            engine.handle("go movetime 100000");
+            engine.handle("stop");
+        }
+
+        assertEquals(40, output().split("bestmove ", -1).length - 1);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void commands_stopAnInfiniteSearch() {
+        for (String command : new String[]{
+            "position startpos moves e2e4", "go depth 1", "setoption name Hash value 1", "ucinewgame"
+        }) {
+            engine.handle("go infinite");
+            engine.handle(command);
+            engine.waitForSearch();
+        }
+
+        assertEquals(5, output().split("bestmove ", -1).length - 1);
+    }
+
+    @Test
+    @Category(EngineTests.class)
+    public void position_reportsIllegalMovesAndKeepsThePosition() {
+        engine.handle("position startpos moves e2e4");
+        engine.handle("position startpos moves e2e5");
+
+        assertTrue(output().contains("info string Illegal move: e2e5"));
+
+        // Black, still to move after e2e4, plays from rank 7 or 8
+        engine.handle("go depth 1");
+        engine.waitForSearch();
+
+        assertTrue(output().matches("(?s).*bestmove [a-h][78][a-h][1-8]\n"));
+    }
+
+    private String output() {
+        return output.toString().replace(System.lineSeparator(), "\n");
+    }
+}